@@ -0,0 +1,116 @@
+package net.dima.project.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 알림 발송용 비동기 실행 설정
+ * 알림/SSE 발송은 요청 스레드가 아닌 전용 스레드 풀에서 처리합니다.
+ * 큐가 가득 차면 호출한 스레드가 직접 처리(CallerRunsPolicy)하여 알림을 버리지 않고 속도를 조절합니다.
+ * 이 설정의 Executor 빈들 때문에 Spring Boot 기본 applicationTaskExecutor 가 만들어지지 않으므로,
+ * 스트리밍 응답(StreamingResponseBody) 같은 MVC 비동기 처리용 스레드 풀도 여기서 직접 지정합니다.
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer, WebMvcConfigurer {
+
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+    public static final String SSE_WRITER_EXECUTOR = "sseWriterExecutor";
+    public static final String MVC_ASYNC_EXECUTOR = "mvcAsyncExecutor";
+
+    @Value("${notification.dispatch.core-pool-size:4}")
+    private int corePoolSize;
+
+    @Value("${notification.dispatch.max-pool-size:16}")
+    private int maxPoolSize;
+
+    @Value("${notification.dispatch.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${sse.writer.pool-size:8}")
+    private int sseWriterPoolSize;
+
+    @Value("${sse.writer.queue-capacity:10000}")
+    private int sseWriterQueueCapacity;
+
+    @Value("${mvc.async.pool-size:8}")
+    private int mvcAsyncPoolSize;
+
+    @Value("${mvc.async.queue-capacity:50}")
+    private int mvcAsyncQueueCapacity;
+
+    @Bean(name = NOTIFICATION_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notify-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // 종료 시 대기 중인 알림을 마저 보내고 내려갑니다.
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * SSE 전송 전용 스레드 풀. 연결당 전송 작업은 최대 하나이므로 큐 길이는 동시 연결 수 기준으로 잡습니다.
+     * 큐가 가득 차면 작업을 거절(AbortPolicy)하고, 이벤트는 연결별 대기열에 남아 다음 전송 때 함께 나갑니다.
+     */
+    @Bean(name = SSE_WRITER_EXECUTOR)
+    public ThreadPoolTaskExecutor sseWriterExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(sseWriterPoolSize);
+        executor.setMaxPoolSize(sseWriterPoolSize);
+        executor.setQueueCapacity(sseWriterQueueCapacity);
+        executor.setThreadNamePrefix("sse-writer-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * MVC 비동기 처리(거래내역 내보내기 스트리밍 등) 전용 스레드 풀.
+     * 지정하지 않으면 요청마다 스레드를 새로 만드는 SimpleAsyncTaskExecutor 가 쓰이므로 크기를 제한합니다.
+     * 큐까지 가득 차면 요청을 거절(AbortPolicy)합니다.
+     */
+    @Bean(name = MVC_ASYNC_EXECUTOR)
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mvcAsyncPoolSize);
+        executor.setMaxPoolSize(mvcAsyncPoolSize);
+        executor.setQueueCapacity(mvcAsyncQueueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return notificationExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> log.error("비동기 작업 실패: {}", method.getName(), ex);
+    }
+}
@@ -47,6 +47,7 @@ public class SecurityConfig {
             .requestMatchers("/api/notifications/**").hasAnyRole("fwd", "cus", "admin")
             .requestMatchers("/download/**").authenticated()
             .requestMatchers("/adm/**").hasRole("admin")
+            .requestMatchers("/actuator/**").hasRole("admin") // 알림 발송 지표 등 운영 지표
             .requestMatchers("/fwd/**", "/api/fwd/**").hasAnyRole("fwd", "admin") // [수정]
             .requestMatchers("/cus/**", "/api/cus/**").hasAnyRole("cus", "admin") // [수정]
             .requestMatchers("/my/**").hasAnyRole("ADMIN","fwd","cus")
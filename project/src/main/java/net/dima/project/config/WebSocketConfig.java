@@ -1,28 +1,141 @@
 package net.dima.project.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * 채팅(STOMP) 설정
+ * chat.broker.mode 로 브로커를 고릅니다.
+ * - simple: 서버 메모리 안의 브로커 (기본값). 다른 서버의 구독자에게는 StompMessageRelay 가 메시지 버스로 전달합니다.
+ * - relay : 외부 STOMP 브로커(RabbitMQ, ActiveMQ 등)로 구독/전송을 넘깁니다. 모든 서버의 구독자가 같은 브로커에 붙습니다.
+ * 클라이언트 수신/발신 채널은 크기를 정한 전용 스레드 풀을 사용하며,
+ * ThreadPoolExecutor 는 대기열이 가득 차야 core 이상으로 스레드를 늘리므로 core 와 max 를 같게 고정합니다.
+ * 각 풀의 상태는 Actuator 의 executor 지표(clientInboundChannelExecutor, clientOutboundChannelExecutor)로 확인합니다.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String BROKER_MODE_SIMPLE = "simple";
+    public static final String BROKER_MODE_RELAY = "relay";
+
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chat.broker.heartbeat-ms:10000}")
+    private long heartbeatMillis;
+
+    @Value("${chat.broker.inbound.pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${chat.broker.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${chat.broker.outbound.pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${chat.broker.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${chat.broker.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${chat.broker.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chat.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chat.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${chat.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    // simple 브로커 heartbeat 용 스케줄러 (브로커 설정과의 순환 참조를 피하려고 지연 주입)
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // 클라이언트가 WebSocket 연결을 시작할 엔드포인트입니다.
         // SockJS는 WebSocket을 지원하지 않는 브라우저를 위한 대체 옵션을 제공합니다.
         registry.addEndpoint("/ws-chat").withSockJS();
-
+        // 같은 연결에서 보낸 메시지는 보낸 순서대로 처리합니다. (채팅 메시지 순서 보장)
+        registry.setPreserveReceiveOrder(true);
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // 메시지 브로커가 /topic으로 시작하는 주소를 구독하는 클라이언트에게 메시지를 전달하도록 설정합니다.
-        registry.enableSimpleBroker("/topic");
+        long[] heartbeat = {heartbeatMillis, heartbeatMillis};
+        if (BROKER_MODE_RELAY.equals(brokerMode)) {
+            // 외부 STOMP 브로커로 /topic 구독과 전송을 넘깁니다.
+            registry.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatMillis)
+                    .setSystemHeartbeatReceiveInterval(heartbeatMillis)
+                    .setVirtualHost(relayVirtualHost.isBlank() ? null : relayVirtualHost);
+            log.info("STOMP: Relaying /topic to external broker {}:{}", relayHost, relayPort);
+        } else if (BROKER_MODE_SIMPLE.equals(brokerMode)) {
+            // 메시지 브로커가 /topic으로 시작하는 주소를 구독하는 클라이언트에게 메시지를 전달하도록 설정합니다.
+            registry.enableSimpleBroker("/topic")
+                    .setHeartbeatValue(heartbeat)
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        } else {
+            throw new IllegalStateException("지원하지 않는 chat.broker.mode 입니다: " + brokerMode);
+        }
         // 클라이언트가 서버로 메시지를 보낼 때 사용할 주소의 접두사입니다.
         registry.setApplicationDestinationPrefixes("/app");
+        // 발신 채널을 여러 스레드가 처리해도 한 연결로 가는 메시지 순서는 유지합니다.
+        registry.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundPoolSize)
+                .maxPoolSize(inboundPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // 느린 클라이언트 한 명 때문에 발신 스레드가 오래 묶이지 않도록, 시간/버퍼 한도를 넘으면 연결을 끊습니다.
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
     }
-}
\ No newline at end of file
+}
@@ -6,12 +6,14 @@ import net.dima.project.dto.DashboardMetricsDto;
 import net.dima.project.dto.ScfiDataDto;
 import net.dima.project.dto.VolumeDto;
 import net.dima.project.service.AdminService;
+import net.dima.project.service.DashboardMetricsRefresher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import java.util.Map; // import 추가
 
@@ -21,17 +23,18 @@ import java.util.Map; // import 추가
 public class AdminApiController {
 
     private final AdminService adminService;
+    private final DashboardMetricsRefresher dashboardMetricsRefresher;
 
     @GetMapping("/volumes")
-    public ResponseEntity<VolumeDto> getVolumes() {
-        VolumeDto volumeData = adminService.getSystemVolume();
+    public ResponseEntity<VolumeDto> getVolumes(@RequestParam(name = "breakdown", defaultValue = "false") boolean breakdown) {
+        VolumeDto volumeData = adminService.getSystemVolume(breakdown);
         return ResponseEntity.ok(volumeData);
     }
     
     // [추가] 대시보드 전체 데이터 API
     @GetMapping("/dashboard-metrics")
     public ResponseEntity<DashboardMetricsDto> getDashboardMetrics() {
-        DashboardMetricsDto metrics = adminService.getDashboardMetrics();
+        DashboardMetricsDto metrics = dashboardMetricsRefresher.getMetrics();
         return ResponseEntity.ok(metrics);
     }
     
@@ -41,6 +44,7 @@ public class AdminApiController {
         try {
             String status = payload.get("status");
             adminService.updateUserStatus(userSeq, status);
+            dashboardMetricsRefresher.requestRefresh(); // 승인 대기 사용자 수 변경
             return ResponseEntity.ok("상태가 성공적으로 변경되었습니다.");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -1,7 +1,9 @@
 package net.dima.project.controller;
 
-import java.util.List;
-
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -33,20 +35,34 @@ public class AdminController {
     }
 
     @GetMapping("/forwarder-management")
-    public String forwarderManagementPage(Model model) {
+    public String forwarderManagementPage(Model model,
+                                          @PageableDefault(size = 20, sort = "createDate", direction = Sort.Direction.DESC) Pageable pageable) {
         // [수정] activeMenu 정보를 모델에 추가
         model.addAttribute("activeMenu", "forwarder-management");
-        List<ForwarderInfoDto> forwarderList = adminService.getForwarderList();
-        model.addAttribute("forwarderList", forwarderList);
+        Page<ForwarderInfoDto> forwarderPage = adminService.getForwarderList(pageable);
+        model.addAttribute("forwarderPage", forwarderPage);
+        model.addAttribute("forwarderList", forwarderPage.getContent());
+        model.addAttribute("sort", toSortParam(forwarderPage.getSort()));
         return "adm/ADM_forwarder_management";
     }
     
     // [추가] 유저(화주) 관리 페이지
     @GetMapping("/user-management")
-    public String userManagementPage(Model model) {
+    public String userManagementPage(Model model,
+                                     @PageableDefault(size = 20, sort = "createDate", direction = Sort.Direction.DESC) Pageable pageable) {
         model.addAttribute("activeMenu", "user-management");
-        List<UserInfoDto> userList = adminService.getUserList();
-        model.addAttribute("userList", userList);
+        Page<UserInfoDto> userPage = adminService.getUserList(pageable);
+        model.addAttribute("userPage", userPage);
+        model.addAttribute("userList", userPage.getContent());
+        model.addAttribute("sort", toSortParam(userPage.getSort()));
         return "adm/ADM_user_management";
     }
-}
\ No newline at end of file
+
+    // 페이지 이동 링크에 현재 정렬을 유지하기 위한 "필드,방향" 문자열
+    private String toSortParam(Sort sort) {
+        return sort.stream()
+                .findFirst()
+                .map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase())
+                .orElse("createDate,desc");
+    }
+}
@@ -3,6 +3,7 @@ package net.dima.project.controller;
 import lombok.RequiredArgsConstructor;
 import net.dima.project.dto.ChatMessageDto;
 import net.dima.project.dto.ChatRoomDto;
+import net.dima.project.dto.CursorPageDto;
 import net.dima.project.dto.LoginUserDetails;
 import net.dima.project.service.ChatService;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -33,10 +35,21 @@ public class ChatApiController {
     }
 
 
+    /**
+     * 채팅 메시지 커서 조회 (기본: 최근 메시지 한 페이지, before: 더 오래된 메시지, after: 더 새로운 메시지)
+     */
     @GetMapping("/rooms/{roomId}/messages")
-    public ResponseEntity<List<ChatMessageDto>> getChatMessages(@PathVariable("roomId") Long roomId) {
-        List<ChatMessageDto> messages = chatService.getMessagesForChatRoom(roomId);
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<?> getChatMessages(
+            @PathVariable("roomId") Long roomId,
+            @RequestParam(name = "before", required = false) Long before,
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "size", defaultValue = "30") int size) {
+        try {
+            CursorPageDto<ChatMessageDto> messages = chatService.getMessagesForChatRoom(roomId, before, after, size);
+            return ResponseEntity.ok(messages);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     // [이 메서드를 추가해주세요]
@@ -2,28 +2,25 @@ package net.dima.project.controller;
 
 import lombok.RequiredArgsConstructor;
 import net.dima.project.dto.ChatMessageDto;
-import net.dima.project.entity.ChatMessage;
 import net.dima.project.service.ChatService;
+import net.dima.project.service.StompMessageRelay;
 
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Controller;
 
 @Controller
 @RequiredArgsConstructor
 public class ChatController {
 
-    private final SimpMessageSendingOperations messagingTemplate;
+    private final StompMessageRelay stompMessageRelay; // 다른 서버에 연결된 참여자에게도 전달
     private final ChatService chatService; // ChatService 주입
 
     @MessageMapping("/chat/sendMessage")
     public void sendMessage(ChatMessageDto chatMessageDto) {
-        // 1. 받은 메시지를 DB에 저장
-        ChatMessage savedMessage = chatService.saveMessage(chatMessageDto);
+        // 1. 서버에서 메시지 ID 를 부여하고 저장 대기열에 넣음 (DB 저장은 ChatMessageJournal 이 모아서 처리)
+        ChatMessageDto messageToSend = chatService.acceptMessage(chatMessageDto);
 
-        // 2. DTO로 변환하여 클라이언트에 전송
-        ChatMessageDto messageToSend = ChatMessageDto.fromEntity(savedMessage);
-        
-        messagingTemplate.convertAndSend("/topic/chatroom/" + messageToSend.getChatRoomId(), messageToSend);
+        // 2. 저장을 기다리지 않고 바로 클라이언트에 전송
+        stompMessageRelay.convertAndSend("/topic/chatroom/" + messageToSend.getChatRoomId(), messageToSend);
     }
 }
\ No newline at end of file
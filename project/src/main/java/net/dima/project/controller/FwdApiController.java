@@ -5,13 +5,19 @@ import lombok.extern.slf4j.Slf4j;
 import net.dima.project.dto.*;
 import net.dima.project.service.ContainerService;
 import net.dima.project.service.OfferService;
+import net.dima.project.service.RequestService;
 import net.dima.project.service.ResaleService;
 import net.dima.project.service.TransactionHistoryService;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -28,6 +34,34 @@ public class FwdApiController {
     private final OfferService offerService;
     private final ResaleService resaleService;
     private final TransactionHistoryService transactionHistoryService; // [✅ 추가]
+    private final RequestService requestService;
+
+    /**
+     * 견적요청조회 목록 커서 조회 API (전체 건수 조회 없이 다음 페이지를 이어서 불러옵니다)
+     */
+    @GetMapping("/requests")
+    public ResponseEntity<?> getRequestsByCursor(
+            Authentication authentication,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "sort", defaultValue = "createdAt") String sort,
+            @RequestParam(name = "direction", defaultValue = "desc") String direction,
+            @RequestParam(name = "excludeClosed", defaultValue = "true") boolean excludeClosed,
+            @RequestParam(name = "tradeType", required = false) String tradeType,
+            @RequestParam(name = "transportType", required = false) String transportType,
+            @RequestParam(name = "departurePort", required = false) String departurePort,
+            @RequestParam(name = "arrivalPort", required = false) String arrivalPort,
+            @RequestParam(name = "itemName", required = false) String itemName) {
+        try {
+            int pageSize = Math.max(1, Math.min(size, 100));
+            CursorPageDto<RequestCardDto> page = requestService.getRequestsByCursor(
+                    excludeClosed, tradeType, transportType, departurePort, arrivalPort, itemName,
+                    cursor, sort, Sort.Direction.fromString(direction), pageSize, authentication.getName());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
     @GetMapping("/available-containers")
     public ResponseEntity<List<AvailableContainerDto>> getAvailableContainers(@RequestParam("requestId") Long requestId, Authentication authentication) {
@@ -286,6 +320,34 @@ public class FwdApiController {
         return ResponseEntity.ok(transactionHistoryService.getPurchaseHistory(authentication.getName(), startDate, endDate, keyword));
     }
     
+    /**
+     * 거래내역 파일 내보내기 (CSV/XLSX). 조회 조건은 거래내역 목록과 같고, 장부를 읽는 대로 응답에 바로 씁니다.
+     */
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            Authentication authentication,
+            @RequestParam(name = "type", defaultValue = "all") String type,
+            @RequestParam(name = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "keyword", required = false) String keyword,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        TransactionHistoryService.ExportFormat exportFormat = "xlsx".equalsIgnoreCase(format)
+                ? TransactionHistoryService.ExportFormat.XLSX
+                : TransactionHistoryService.ExportFormat.CSV;
+        String userId = authentication.getName();
+        String fileName = "transactions_" + LocalDate.now() + (exportFormat == TransactionHistoryService.ExportFormat.XLSX ? ".xlsx" : ".csv");
+        MediaType mediaType = exportFormat == TransactionHistoryService.ExportFormat.XLSX
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : MediaType.parseMediaType("text/csv; charset=UTF-8");
+
+        StreamingResponseBody body = out -> transactionHistoryService.exportTransactionHistory(
+                userId, type, startDate, endDate, keyword, exportFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .contentType(mediaType)
+                .body(body);
+    }
+
     @PostMapping("/containers/{containerId}/settle")
     public ResponseEntity<String> settleContainer(@PathVariable("containerId") String containerId, Authentication authentication) {
         try {
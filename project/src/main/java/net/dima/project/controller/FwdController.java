@@ -3,9 +3,11 @@ package net.dima.project.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dima.project.dto.ContainerStatusDto;
+import net.dima.project.dto.CursorPageDto;
 import net.dima.project.dto.MyOfferDto;
 import net.dima.project.dto.MyPostedRequestDto;
 import net.dima.project.dto.RequestCardDto;
+import net.dima.project.dto.RequestCursor;
 import net.dima.project.service.ContainerService;
 import net.dima.project.service.OfferService;
 import net.dima.project.service.RequestService;
@@ -14,6 +16,7 @@ import net.dima.project.service.ResaleService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -36,11 +39,13 @@ public class FwdController {
     private final ContainerService containerService;
     private final ResaleService resaleService; 
 
+    private static final int REQUEST_PAGE_SIZE = 10;
+
     /**
      * 포워더 대시보드 (견적요청조회) 페이지
+     * 첫 페이지도 /api/fwd/requests 와 같은 키셋 조회로 읽고(전체 건수 조회 없음),
+     * 다음 목록은 화면의 '더보기'가 nextCursor 로 이어서 불러옵니다.
      */
-    // [✅ 교체] fwdRequest 메서드를 아래 코드로 교체합니다.
- // [✅ 이 메서드 전체를 아래 코드로 교체해주세요]
     @GetMapping("/fwdRequest")
     public String fwdRequest(Model model, Authentication authentication,
                              @RequestParam(name = "excludeClosed", defaultValue = "true") boolean excludeClosed,
@@ -49,13 +54,18 @@ public class FwdController {
                              @RequestParam(name = "departurePort", required = false) String departurePort,
                              @RequestParam(name = "arrivalPort", required = false) String arrivalPort,
                              @RequestParam(name = "itemName", required = false) String itemName,
-                             @PageableDefault(size = 10, sort = {"createdAt"}, direction = Sort.Direction.DESC) Pageable pageable) {
+                             @SortDefault(sort = "createdAt", direction = Sort.Direction.DESC) Sort sort) {
 
-        String userId = authentication.getName();
-        Page<RequestCardDto> requestPage = requestService.getRequests(
-                excludeClosed, tradeType, transportType, departurePort, arrivalPort, itemName, pageable, userId);
+        Sort.Order order = sort.iterator().next();
+        String currentSortField = RequestCursor.isSupportedSortField(order.getProperty()) ? order.getProperty() : RequestCursor.SORT_CREATED_AT;
+        Sort.Direction currentDirection = order.getDirection();
+
+        CursorPageDto<RequestCardDto> requestPage = requestService.getRequestsByCursor(
+                excludeClosed, tradeType, transportType, departurePort, arrivalPort, itemName,
+                null, currentSortField, currentDirection, REQUEST_PAGE_SIZE, authentication.getName());
 
         model.addAttribute("requestsPage", requestPage);
+        model.addAttribute("pageSize", REQUEST_PAGE_SIZE);
         model.addAttribute("activeMenu", "fwdRequest");
         
         model.addAttribute("excludeClosed", excludeClosed);
@@ -65,10 +75,9 @@ public class FwdController {
         model.addAttribute("arrivalPort", arrivalPort);
         model.addAttribute("itemName", itemName);
 
-        String currentSortField = pageable.getSort().iterator().next().getProperty();
-        String currentSortDirection = pageable.getSort().iterator().next().getDirection().name();
+        String currentSortDirection = currentDirection.name();
         model.addAttribute("currentSortField", currentSortField);
-        model.addAttribute("currentSortDirection", currentSortDirection); // [✅ 이 줄 추가]
+        model.addAttribute("currentSortDirection", currentSortDirection);
         model.addAttribute("reverseSortDirection", currentSortDirection.equals("ASC") ? "desc" : "asc");
 
         return "fwd/FWD_request";}
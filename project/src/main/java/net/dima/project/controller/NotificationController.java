@@ -8,6 +8,7 @@ import net.dima.project.service.SseEmitterService; // SseEmitterService import
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -26,9 +27,15 @@ public class NotificationController {
      * 이 메소드는 더 이상 @Transactional과 관련이 없습니다.
      */
     @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter subscribe(Authentication authentication) {
+    public SseEmitter subscribe(Authentication authentication,
+                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         String userId = authentication.getName();
-        SseEmitter emitter = sseEmitterService.createEmitter(userId);
+        // 권한(role)별 토픽을 연결 시점에 등록해 두면, 방송 시 DB 조회 없이 구독자만 순회합니다.
+        List<String> topics = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        // 브라우저가 자동 재연결하면 마지막으로 받은 이벤트 id 를 보내므로, 놓친 이벤트만 다시 받습니다.
+        SseEmitter emitter = sseEmitterService.createEmitter(userId, topics, parseEventId(lastEventId));
         
         // 초기 안읽은 알림 개수를 조회하여 클라이언트에 전송합니다.
         // 이 DB 조회는 매우 짧은 트랜잭션으로 처리됩니다.
@@ -54,4 +61,15 @@ public class NotificationController {
         notificationService.readAllNotifications(authentication.getName());
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    private Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null; // 알 수 없는 id 는 새 연결로 취급
+        }
+    }
+}
@@ -3,20 +3,26 @@ package net.dima.project.dto;
 import lombok.Data;
 import net.dima.project.entity.ChatMessage;
 
+import java.time.LocalDateTime;
+
 @Data
 public class ChatMessageDto {
+    private Long messageId; // 저장 후에만 채워짐 (메시지 목록 커서로 사용)
     private Long chatRoomId;
     private Integer senderSeq;
     private String senderName;
     private String messageContent;
+    private LocalDateTime sentAt;
     
  // 파일 하단에 fromEntity 메서드를 추가해주세요.
     public static ChatMessageDto fromEntity(ChatMessage entity) {
         ChatMessageDto dto = new ChatMessageDto();
+        dto.setMessageId(entity.getMessageId());
         dto.setChatRoomId(entity.getChatRoom().getChatRoomId());
         dto.setSenderSeq(entity.getSender().getUserSeq());
         dto.setSenderName(entity.getSender().getUserName());
         dto.setMessageContent(entity.getMessageContent());
+        dto.setSentAt(entity.getSentAt());
         return dto;
     }
 }
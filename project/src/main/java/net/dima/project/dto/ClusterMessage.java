@@ -0,0 +1,20 @@
+package net.dima.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 서버(노드) 간에 전달하는 실시간 메시지 한 건
+ * payload 는 보내는 쪽에서 한 번만 JSON 으로 직렬화해 그대로 전달합니다.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ClusterMessage {
+    private String channel;   // ClusterMessageBus.CHANNEL_* (수신 처리기 구분)
+    private String target;    // userId, SSE 토픽 또는 STOMP destination
+    private String eventName; // SSE 이벤트 이름 (STOMP 메시지는 null)
+    private String payload;
+    private Long eventId;     // SSE 이벤트 id (발행한 노드가 시각 기준으로 부여, 모든 노드가 같은 id 로 전송/보관)
+}
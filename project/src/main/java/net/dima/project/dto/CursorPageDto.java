@@ -0,0 +1,17 @@
+package net.dima.project.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 커서 기반 목록 응답 (전체 개수 조회 없이 다음 페이지 존재 여부와 커서만 전달)
+ */
+@Data
+@Builder
+public class CursorPageDto<T> {
+    private List<T> content;
+    private String nextCursor; // 다음 페이지가 없으면 null
+    private boolean hasNext;
+}
@@ -0,0 +1,18 @@
+package net.dima.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import net.dima.project.entity.UserEntity;
+
+/**
+ * 여러 명에게 한 번에 보낼 알림 한 건 (수신자, 메시지, 이동 URL)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class NotificationMessageDto {
+    private UserEntity receiver;
+    private String message;
+    private String url;
+}
@@ -0,0 +1,27 @@
+package net.dima.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 알림 outbox 에 JSON 으로 저장되는 이벤트 내용 (이벤트 종류별로 필요한 ID만 채움)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificationOutboxPayload {
+    private Long offerId;
+    private List<Long> offerIds;
+    private Long winningOfferId;
+    private String containerId;
+    private String containerStatus;
+    private String message;
+    private Long requestId;
+}
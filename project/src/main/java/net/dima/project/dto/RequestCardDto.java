@@ -26,6 +26,7 @@ public class RequestCardDto {
     private String transportType;
     private Double cbm;
     private LocalDateTime deadlineDateTime;
+    private LocalDateTime createdAtDateTime; // 커서 페이지네이션 기준값
     private String requesterId;
     private boolean hasMyOffer; // [✅ 추가]
     private RequestStatus status; 
@@ -52,6 +53,7 @@ public class RequestCardDto {
                 .transportType(entity.getTransportType())
                 .cbm(entity.getCargo().getTotalCbm()) // cargo 엔티티에서 totalCbm 가져오기
                 .deadlineDateTime(entity.getDeadline())
+                .createdAtDateTime(entity.getCreatedAt())
                 .requesterId(entity.getRequester().getUserId())
                 .hasMyOffer(hasMyOffer)
                 .status(entity.getStatus()) // [✅ 추가] status 값 설정
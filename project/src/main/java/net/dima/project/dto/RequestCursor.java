@@ -0,0 +1,60 @@
+package net.dima.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 견적요청조회 키셋(seek) 페이지네이션용 커서
+ * 마지막으로 내려준 요청의 정렬 기준값(createdAt, deadline 또는 cargo.totalCbm)과 requestId를 담아
+ * 클라이언트에는 불투명한 문자열로 전달합니다.
+ */
+@Getter
+@AllArgsConstructor
+public class RequestCursor {
+
+    public static final String SORT_CREATED_AT = "createdAt";
+    public static final String SORT_DEADLINE = "deadline";
+    public static final String SORT_CBM = "cargo.totalCbm";
+    // cargo.total_cbm 컬럼의 소수 자릿수 (DECIMAL(10, 4))
+    public static final int CBM_SCALE = 4;
+
+    private final String sortField;
+    private final Comparable<?> sortValue; // createdAt/deadline: LocalDateTime, cargo.totalCbm: BigDecimal(소수 4자리)
+    private final Long requestId;
+
+    public String encode() {
+        String raw = sortField + "|" + sortValue + "|" + requestId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RequestCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !isSupportedSortField(parts[0])) {
+                throw new IllegalArgumentException("잘못된 커서 형식입니다.");
+            }
+            Comparable<?> sortValue = SORT_CBM.equals(parts[0]) ? scaledCbm(new BigDecimal(parts[1])) : LocalDateTime.parse(parts[1]);
+            return new RequestCursor(parts[0], sortValue, Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 커서 형식입니다.", e);
+        }
+    }
+
+    /**
+     * CBM 을 컬럼과 같은 소수 자릿수로 맞춥니다. (double 표현 오차가 커서에 실리지 않도록)
+     */
+    public static BigDecimal scaledCbm(BigDecimal cbm) {
+        return cbm.setScale(CBM_SCALE, RoundingMode.HALF_UP);
+    }
+
+    public static boolean isSupportedSortField(String sortField) {
+        return SORT_CREATED_AT.equals(sortField) || SORT_DEADLINE.equals(sortField) || SORT_CBM.equals(sortField);
+    }
+}
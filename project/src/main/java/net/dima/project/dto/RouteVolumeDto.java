@@ -0,0 +1,21 @@
+package net.dima.project.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 물동량 그래프 상세: 구간(출발/도착항)과 출항 주(월요일 기준)별 물동량
+ */
+@Data
+@Builder
+public class RouteVolumeDto {
+    private String departurePort;
+    private String arrivalPort;
+    private LocalDate etdWeek;   // 해당 주의 월요일
+    private double confirmedCbm;
+    private double resaleCbm;
+    private double biddingCbm;
+    private double availableCbm;
+}
@@ -3,6 +3,8 @@ package net.dima.project.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @Builder
 public class VolumeDto {
@@ -10,4 +12,5 @@ public class VolumeDto {
     private double resaleCbm;    // 재판매중
     private double biddingCbm;   // 입찰중
     private double availableCbm; // 공차물량
+    private List<RouteVolumeDto> breakdown; // 구간/출항 주별 상세 (요청한 경우에만)
 }
\ No newline at end of file
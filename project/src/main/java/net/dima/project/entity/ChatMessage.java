@@ -36,8 +36,4 @@ public class ChatMessage {
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime sentAt;
-
-    @Column(nullable = false)
-    @Builder.Default
-    private boolean isRead = false;
 }
\ No newline at end of file
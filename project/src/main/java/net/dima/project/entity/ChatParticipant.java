@@ -31,4 +31,9 @@ public class ChatParticipant {
     
     // [이 필드를 추가해주세요]
     private String customRoomName;
+
+    // 읽음 기준점: 이 ID 이하의 메시지는 모두 읽은 것으로 봅니다. (메시지별 읽음 여부 대신 사용)
+    @Column(name = "last_read_message_id", nullable = false)
+    @Builder.Default
+    private Long lastReadMessageId = 0L;
 }
\ No newline at end of file
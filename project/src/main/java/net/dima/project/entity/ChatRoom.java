@@ -36,6 +36,13 @@ public class ChatRoom {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    // 채팅 목록 정렬/미리보기용 (메시지 저장 시 갱신)
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_message_preview", length = 100)
+    private String lastMessagePreview;
+
     @OneToMany(mappedBy = "chatRoom", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<ChatParticipant> participants = new ArrayList<>();
@@ -0,0 +1,54 @@
+package net.dima.project.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 컨테이너별 적재 용량 장부
+ * 제안/재판매/외부화물이 바뀔 때마다 ContainerCapacityService 가 갱신하며,
+ * 컨테이너 조회 화면과 제안 모달은 이 테이블의 값을 그대로 읽습니다.
+ */
+@Entity
+@Table(name = "container_capacity")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContainerCapacityEntity {
+
+    @Id
+    @Column(name = "container_id")
+    private String containerId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "container_id")
+    private ContainerEntity container;
+
+    @Column(name = "capacity_cbm", nullable = false)
+    private Double capacityCbm;
+
+    @Column(name = "confirmed_cbm", nullable = false)
+    private Double confirmedCbm; // 수락/확정/선적/운송완료 제안
+
+    @Column(name = "resale_cbm", nullable = false)
+    private Double resaleCbm;    // 재판매중 제안
+
+    @Column(name = "bidding_cbm", nullable = false)
+    private Double biddingCbm;   // 마감 전 입찰중 제안
+
+    @Column(name = "external_cbm", nullable = false)
+    private Double externalCbm;  // 외부 등록 화물
+
+    // DB 생성 컬럼 (capacity - confirmed - resale - bidding - external)
+    @Column(name = "available_cbm", insertable = false, updatable = false)
+    private Double availableCbm;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
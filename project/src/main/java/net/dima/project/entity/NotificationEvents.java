@@ -1,13 +1,14 @@
 package net.dima.project.entity;
 
 import lombok.Getter;
-import net.dima.project.entity.OfferEntity;
-import net.dima.project.dto.RequestCardDto; 
 import org.springframework.context.ApplicationEvent;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * 시스템 내 알림 관련 이벤트를 정의하는 클래스 모음
+ * 이벤트는 엔티티 대신 ID만 담으며, 발행 트랜잭션 안에서 알림 outbox 에 기록된 뒤 (NotificationOutboxWriter)
+ * 커밋 후 NotificationDispatcher 가 묶음 단위로 발송합니다.
  */
 public class NotificationEvents {
 
@@ -16,10 +17,10 @@ public class NotificationEvents {
      */
     @Getter
     public static class OfferCreatedEvent extends ApplicationEvent {
-        private final OfferEntity offer;
-        public OfferCreatedEvent(Object source, OfferEntity offer) {
+        private final Long offerId;
+        public OfferCreatedEvent(Object source, Long offerId) {
             super(source);
-            this.offer = offer;
+            this.offerId = offerId;
         }
     }
 
@@ -28,12 +29,12 @@ public class NotificationEvents {
      */
     @Getter
     public static class OfferConfirmedEvent extends ApplicationEvent {
-        private final List<OfferEntity> offers; // 관련된 모든 제안 (낙찰 1건, 거절 N건)
-        private final OfferEntity winningOffer; // 낙찰된 제안
-        public OfferConfirmedEvent(Object source, List<OfferEntity> offers, OfferEntity winningOffer) {
+        private final List<Long> offerIds; // 관련된 모든 제안 (낙찰 1건, 거절 N건)
+        private final Long winningOfferId; // 낙찰된 제안
+        public OfferConfirmedEvent(Object source, List<Long> offerIds, Long winningOfferId) {
             super(source);
-            this.offers = offers;
-            this.winningOffer = winningOffer;
+            this.offerIds = offerIds;
+            this.winningOfferId = winningOfferId;
         }
     }
 
@@ -42,12 +43,16 @@ public class NotificationEvents {
      */
     @Getter
     public static class ContainerStatusChangedEvent extends ApplicationEvent {
-        private final ContainerEntity container;
+        private final String containerId;
+        private final ContainerStatus status; // 변경된 상태
         private final String message; // 예: "컨테이너가 확정되었습니다."
-        public ContainerStatusChangedEvent(Object source, ContainerEntity container, String message) {
+        private final String transitionId; // 상태 변경 1건마다 새로 부여 (같은 상태로 다시 바뀌어도 알림이 나가도록)
+        public ContainerStatusChangedEvent(Object source, String containerId, ContainerStatus status, String message) {
             super(source);
-            this.container = container;
+            this.containerId = containerId;
+            this.status = status;
             this.message = message;
+            this.transitionId = UUID.randomUUID().toString();
         }
     }
     
@@ -56,10 +61,10 @@ public class NotificationEvents {
      */
     @Getter
     public static class RequestCreatedEvent extends ApplicationEvent {
-        private final RequestCardDto requestCardDto;
-        public RequestCreatedEvent(Object source, RequestCardDto requestCardDto) {
+        private final Long requestId;
+        public RequestCreatedEvent(Object source, Long requestId) {
             super(source);
-            this.requestCardDto = requestCardDto;
+            this.requestId = requestId;
         }
     }
     
@@ -82,4 +87,4 @@ public class NotificationEvents {
             super(source);
         }
     }
-}
\ No newline at end of file
+}
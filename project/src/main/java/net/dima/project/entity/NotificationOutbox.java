@@ -0,0 +1,54 @@
+package net.dima.project.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 알림 outbox
+ * 업무 변경과 같은 트랜잭션에서 기록되므로, 커밋된 변경의 알림은 서버가 중간에 죽어도 유실되지 않습니다.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private NotificationOutboxType eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // NotificationOutboxPayload JSON
+
+    @Column(name = "dedupe_key", unique = true, length = 150)
+    private String dedupeKey; // 같은 이벤트의 중복 기록 방지 (NULL이면 중복 검사 안 함)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private NotificationOutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
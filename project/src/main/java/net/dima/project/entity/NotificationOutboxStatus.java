@@ -0,0 +1,7 @@
+package net.dima.project.entity;
+
+public enum NotificationOutboxStatus {
+    PENDING, // 발송 대기
+    SENT,    // 발송 완료
+    FAILED   // 재시도 한도 초과
+}
@@ -0,0 +1,10 @@
+package net.dima.project.entity;
+
+public enum NotificationOutboxType {
+    OFFER_CREATED,            // 신규 제안
+    OFFER_CONFIRMED,          // 낙찰/거절 확정
+    CONTAINER_STATUS_CHANGED, // 컨테이너 상태 변경
+    REQUEST_CREATED,          // 신규 화물 요청
+    USER_JOINED,              // 신규 가입 (대시보드 갱신)
+    DEAL_MADE                 // 거래 체결 (대시보드 갱신)
+}
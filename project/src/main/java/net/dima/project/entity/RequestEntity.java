@@ -62,6 +62,10 @@ public class RequestEntity {
     @JoinColumn(name = "source_offer_id")
     private OfferEntity sourceOffer;
 
+    // 이 요청이 속한 재판매 체인의 최종 컨테이너가 정산완료된 시각 (목록에서 정산완료 건을 DB에서 바로 제외하기 위함)
+    @Column(name = "settled_at")
+    private LocalDateTime settledAt;
+
     // 재판매 요청의 근원을 추적하기 위한 컬럼. 지금 당장은 사용하지 않지만 구조를 위해 추가합니다.
     // private Long sourceOfferId;
 }
\ No newline at end of file
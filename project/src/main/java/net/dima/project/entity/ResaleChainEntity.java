@@ -0,0 +1,47 @@
+package net.dima.project.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 재판매 체인 인덱스
+ * 요청(Request)마다 한 행을 두고, 체인의 최초 요청(root)과 깊이, 그리고 체인 끝에서 실제로 화물을 싣고 있는
+ * 최종 제안(final offer)을 기록합니다. 최종 운송 컨테이너는 finalOffer.container 로 조회합니다.
+ * 낙찰 없이 취소/만료된 재판매 요청은 행을 지우지 않고 detached 로 남겨, 다시 체인을 따라가지 않게 합니다.
+ */
+@Entity
+@Table(name = "resale_chain")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResaleChainEntity {
+
+    @Id
+    @Column(name = "request_id")
+    private Long requestId;
+
+    @Column(name = "root_request_id", nullable = false)
+    private Long rootRequestId;
+
+    @Column(nullable = false)
+    private int depth; // 최초 요청은 0, 재판매할 때마다 1씩 증가
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "final_offer_id") // 아직 낙찰 전이면 NULL
+    private OfferEntity finalOffer;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean detached = false; // 체인에서 빠진 재판매 요청 (최종 제안 없음, 체인 갱신 대상 아님)
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
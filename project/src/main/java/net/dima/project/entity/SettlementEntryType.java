@@ -0,0 +1,17 @@
+package net.dima.project.entity;
+
+public enum SettlementEntryType {
+    SALE("판매"),     // 포워더가 화주(또는 재판매자)에게 운송을 판매
+    PURCHASE("구매"), // 포워더가 재판매 요청으로 다른 포워더에게 운송을 구매
+    REQUEST("요청");  // 화주의 최초 요청
+
+    private final String label;
+
+    SettlementEntryType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
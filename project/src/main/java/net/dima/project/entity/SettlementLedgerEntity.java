@@ -0,0 +1,66 @@
+package net.dima.project.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 정산 장부 (추가만 하는 테이블)
+ * 컨테이너가 정산완료될 때 거래 당사자마다 한 행씩 기록하고, 거래내역/이력 화면은 이 테이블만 조회합니다.
+ * 품명, 상대방 회사명, 구간은 정산 시점의 값을 그대로 보관합니다.
+ */
+@Entity
+@Table(name = "settlement_ledger")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementLedgerEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ledger_id")
+    private Long ledgerId;
+
+    @Column(name = "user_seq", nullable = false)
+    private Integer userSeq; // 이 거래내역을 보는 사용자
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private SettlementEntryType entryType;
+
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDateTime transactionDate; // 거래일 (낙찰 제안 생성일)
+
+    @Column(name = "item_name")
+    private String itemName;
+
+    @Column(name = "partner_name")
+    private String partnerName;
+
+    @Column(name = "departure_port")
+    private String departurePort;
+
+    @Column(name = "arrival_port")
+    private String arrivalPort;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Column(name = "offer_id", nullable = false)
+    private Long offerId; // 거래 금액의 근거가 된 낙찰 제안
+
+    @Column(name = "container_id", nullable = false)
+    private String containerId; // 정산된 (최종 운송) 컨테이너
+
+    @Column(name = "settled_at", nullable = false)
+    private LocalDateTime settledAt;
+}
@@ -2,8 +2,10 @@ package net.dima.project.repository;
 
 import net.dima.project.entity.ChatMessage;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying; // [✅ 추가]
 import org.springframework.data.jpa.repository.Query; // [✅ 추가]
@@ -11,14 +13,36 @@ import org.springframework.data.repository.query.Param; // [✅ 추가]
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 	
-    List<ChatMessage> findByChatRoom_ChatRoomIdOrderBySentAtAsc(Long chatRoomId);
+    // 메시지 커서 조회: (chat_room_id, message_id) 인덱스를 따라 필요한 개수만 읽습니다.
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+           "WHERE m.chatRoom.chatRoomId = :roomId ORDER BY m.messageId DESC")
+    List<ChatMessage> findLatestByRoom(@Param("roomId") Long roomId, Pageable pageable);
 
-    // [✅ 추가] 특정 채팅방에서 특정 사용자가 읽지 않은 메시지 개수 조회
-    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom.chatRoomId = :roomId AND m.sender.userSeq != :userSeq AND m.isRead = false")
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+           "WHERE m.chatRoom.chatRoomId = :roomId AND m.messageId < :beforeId ORDER BY m.messageId DESC")
+    List<ChatMessage> findByRoomBefore(@Param("roomId") Long roomId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender " +
+           "WHERE m.chatRoom.chatRoomId = :roomId AND m.messageId > :afterId ORDER BY m.messageId ASC")
+    List<ChatMessage> findByRoomAfter(@Param("roomId") Long roomId, @Param("afterId") Long afterId, Pageable pageable);
+
+    // 특정 채팅방에서 특정 사용자가 읽지 않은 메시지 개수 조회 (읽음 기준점 이후의 상대방 메시지, (chat_room_id, message_id) 범위 조회)
+    @Query("SELECT COUNT(m) FROM ChatParticipant p, ChatMessage m " +
+           "WHERE p.chatRoom.chatRoomId = :roomId AND p.user.userSeq = :userSeq " +
+           "AND m.chatRoom.chatRoomId = :roomId AND m.messageId > p.lastReadMessageId AND m.sender.userSeq <> :userSeq")
     long countUnreadMessages(@Param("roomId") Long roomId, @Param("userSeq") Integer userSeq);
 
-    // [✅ 추가] 특정 채팅방의 메시지를 모두 읽음 처리
+    // 특정 채팅방을 읽음 처리: 참여자 한 행의 읽음 기준점을 방의 마지막 메시지 ID 로 올립니다.
     @Modifying
-    @Query("UPDATE ChatMessage m SET m.isRead = true WHERE m.chatRoom.chatRoomId = :roomId AND m.sender.userSeq != :userSeq")
+    @Query("UPDATE ChatParticipant p SET p.lastReadMessageId = " +
+           "(SELECT COALESCE(MAX(m.messageId), 0) FROM ChatMessage m WHERE m.chatRoom.chatRoomId = :roomId) " +
+           "WHERE p.chatRoom.chatRoomId = :roomId AND p.user.userSeq = :userSeq")
     void markAsReadByRoomIdAndUserSeq(@Param("roomId") Long roomId, @Param("userSeq") Integer userSeq);
+
+    // 여러 채팅방의 안 읽은 메시지 수를 한 번에 조회 (key: chatRoomId, value: 개수)
+    @Query("SELECT m.chatRoom.chatRoomId, COUNT(m) FROM ChatParticipant p " +
+           "JOIN ChatMessage m ON m.chatRoom = p.chatRoom AND m.messageId > p.lastReadMessageId " +
+           "WHERE p.chatRoom.chatRoomId IN :roomIds AND p.user.userSeq = :userSeq AND m.sender.userSeq <> :userSeq " +
+           "GROUP BY m.chatRoom.chatRoomId")
+    List<Object[]> countUnreadMessagesByRoomIn(@Param("roomIds") Collection<Long> roomIds, @Param("userSeq") Integer userSeq);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package net.dima.project.repository;
 
 import net.dima.project.entity.ChatRoom;
+import net.dima.project.entity.ChatRoomStatus;
 import net.dima.project.entity.OfferEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,7 +13,23 @@ import java.util.Optional;
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     Optional<ChatRoom> findByOffer(OfferEntity offer);
     
-    // [이 메서드를 추가해주세요]
-    @Query("SELECT cr FROM ChatRoom cr JOIN cr.participants p WHERE p.user.userSeq = :userSeq ORDER BY cr.createdAt DESC")
-    List<ChatRoom> findAllByUserSeq(@Param("userSeq") Integer userSeq);
+    /**
+     * 채팅 목록 화면에 필요한 값만 한 번의 쿼리로 조회합니다. (최근 메시지 순)
+     * [채팅방 ID, 내 역할, 내가 지정한 이름, 상대방 회사명, 품명, 마지막 메시지 미리보기, 마지막 메시지 시각, 안 읽은 메시지 수]
+     */
+    @Query("SELECT cr.chatRoomId, me.roleInChat, me.customRoomName, other.companyName, cg.itemName, " +
+           "cr.lastMessagePreview, cr.lastMessageAt, " +
+           "(SELECT COUNT(m) FROM ChatMessage m WHERE m.chatRoom = cr AND m.messageId > me.lastReadMessageId AND m.sender.userSeq <> :userSeq) " +
+           "FROM ChatParticipant me JOIN me.chatRoom cr JOIN cr.offer o JOIN o.request r JOIN r.cargo cg " +
+           "LEFT JOIN ChatParticipant op ON op.chatRoom = cr AND op.user.userSeq <> :userSeq " +
+           "LEFT JOIN op.user other " +
+           "WHERE me.user.userSeq = :userSeq AND cr.status = :status " +
+           "ORDER BY cr.lastMessageAt DESC NULLS LAST, cr.createdAt DESC")
+    List<Object[]> findRoomSummariesByUserSeq(@Param("userSeq") Integer userSeq, @Param("status") ChatRoomStatus status);
+
+    /**
+     * 채팅방 참여자 [userSeq, userId, userName]
+     */
+    @Query("SELECT p.user.userSeq, p.user.userId, p.user.userName FROM ChatParticipant p WHERE p.chatRoom.chatRoomId = :chatRoomId")
+    List<Object[]> findMembersByChatRoomId(@Param("chatRoomId") Long chatRoomId);
 }
\ No newline at end of file
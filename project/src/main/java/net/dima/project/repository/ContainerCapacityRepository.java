@@ -0,0 +1,111 @@
+package net.dima.project.repository;
+
+import net.dima.project.entity.ContainerCapacityEntity;
+import net.dima.project.entity.ContainerStatus;
+import net.dima.project.entity.UserEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContainerCapacityRepository extends JpaRepository<ContainerCapacityEntity, String> {
+
+    /**
+     * 컨테이너 조회 화면용: 포워더의 컨테이너와 용량 장부를 한 번의 쿼리로 조회합니다.
+     */
+    @Query("SELECT cap FROM ContainerCapacityEntity cap JOIN FETCH cap.container c " +
+           "WHERE c.forwarder = :forwarder AND c.status <> :excludedStatus")
+    List<ContainerCapacityEntity> findWithContainerByForwarder(@Param("forwarder") UserEntity forwarder,
+                                                                @Param("excludedStatus") ContainerStatus excludedStatus,
+                                                                Sort sort);
+
+    /**
+     * 제안 모달용: 요청과 경로가 같은 '운송 예정' 컨테이너와 용량 장부를 조회합니다.
+     */
+    @Query("SELECT cap FROM ContainerCapacityEntity cap JOIN FETCH cap.container c " +
+           "WHERE c.forwarder = :forwarder AND c.status = :status " +
+           "AND LOWER(TRIM(c.departurePort)) = LOWER(TRIM(:departurePort)) " +
+           "AND LOWER(TRIM(c.arrivalPort)) = LOWER(TRIM(:arrivalPort)) " +
+           "ORDER BY c.containerId ASC")
+    List<ContainerCapacityEntity> findWithContainerByRoute(@Param("forwarder") UserEntity forwarder,
+                                                            @Param("status") ContainerStatus status,
+                                                            @Param("departurePort") String departurePort,
+                                                            @Param("arrivalPort") String arrivalPort);
+
+    /**
+     * 관리자 물동량 그래프용: 상태별 컨테이너 장부를 구간/출항일 단위로 합산합니다.
+     * [출발항, 도착항, 출항일, 총 용량, 확정, 재판매, 입찰]
+     */
+    @Query("SELECT c.departurePort, c.arrivalPort, c.etd, SUM(cap.capacityCbm), SUM(cap.confirmedCbm), " +
+           "SUM(cap.resaleCbm), SUM(cap.biddingCbm) " +
+           "FROM ContainerCapacityEntity cap JOIN cap.container c WHERE c.status = :status " +
+           "GROUP BY c.departurePort, c.arrivalPort, c.etd")
+    List<Object[]> sumVolumeByRouteAndEtd(@Param("status") ContainerStatus status);
+
+    /**
+     * 지정한 컨테이너들의 장부를 제안/외부화물 현황으로부터 다시 계산합니다.
+     * (대상 컨테이너 행만 집계하므로 화면 조회 시 전체 제안을 읽어 계산하던 것보다 훨씬 가볍습니다)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE container_capacity cc SET " +
+           "cc.capacity_cbm = (SELECT ct.capacity_cbm FROM container ct WHERE ct.container_id = cc.container_id), " +
+           "cc.confirmed_cbm = COALESCE((SELECT SUM(cg.total_cbm) FROM offer o " +
+           "    JOIN request r ON r.request_id = o.request_id JOIN cargo cg ON cg.cargo_id = r.cargo_id " +
+           "    WHERE o.container_id = cc.container_id AND o.status IN ('ACCEPTED', 'CONFIRMED', 'SHIPPED', 'COMPLETED')), 0), " +
+           "cc.resale_cbm = COALESCE((SELECT SUM(cg.total_cbm) FROM offer o " +
+           "    JOIN request r ON r.request_id = o.request_id JOIN cargo cg ON cg.cargo_id = r.cargo_id " +
+           "    WHERE o.container_id = cc.container_id AND o.status = 'FOR_SALE'), 0), " +
+           "cc.bidding_cbm = COALESCE((SELECT SUM(cg.total_cbm) FROM offer o " +
+           "    JOIN request r ON r.request_id = o.request_id JOIN cargo cg ON cg.cargo_id = r.cargo_id " +
+           "    WHERE o.container_id = cc.container_id AND o.status = 'PENDING' AND r.deadline > :now), 0), " +
+           "cc.external_cbm = COALESCE((SELECT SUM(x.cbm_loaded) FROM container_cargo x " +
+           "    WHERE x.container_id = cc.container_id AND x.is_external = TRUE), 0), " +
+           "cc.updated_at = :now " +
+           "WHERE cc.container_id IN (:containerIds)", nativeQuery = true)
+    int recalculate(@Param("containerIds") Collection<String> containerIds, @Param("now") LocalDateTime now);
+
+    /**
+     * 용량 확보 조건부 갱신: 잔여 용량(+ 이미 이 건으로 잡혀 있던 용량)이 필요한 용량 이상일 때만 1행이 갱신됩니다.
+     * recalculate 로 행 잠금을 잡은 뒤 호출하므로, 같은 컨테이너에 대한 동시 요청은 커밋 순서대로 하나씩 검사됩니다.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE container_capacity SET updated_at = :now " +
+           "WHERE container_id = :containerId AND available_cbm + :heldCbm >= :requiredCbm", nativeQuery = true)
+    int tryAllocate(@Param("containerId") String containerId,
+                    @Param("requiredCbm") double requiredCbm,
+                    @Param("heldCbm") double heldCbm,
+                    @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT available_cbm FROM container_capacity WHERE container_id = :containerId", nativeQuery = true)
+    Double findAvailableCbm(@Param("containerId") String containerId);
+
+    /**
+     * 장부가 없는 컨테이너(장부 도입 이전 데이터)에 빈 장부를 만들어 둡니다.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO container_capacity " +
+           "(container_id, capacity_cbm, confirmed_cbm, resale_cbm, bidding_cbm, external_cbm, updated_at) " +
+           "SELECT ct.container_id, ct.capacity_cbm, 0, 0, 0, 0, :now FROM container ct " +
+           "WHERE NOT EXISTS (SELECT 1 FROM container_capacity cc WHERE cc.container_id = ct.container_id)",
+           nativeQuery = true)
+    int insertMissing(@Param("now") LocalDateTime now);
+
+    /**
+     * 정산되지 않은 컨테이너 ID 목록 (시작 시 전체 보정 대상)
+     */
+    @Query("SELECT cap.containerId FROM ContainerCapacityEntity cap WHERE cap.container.status <> :excludedStatus")
+    List<String> findContainerIdsByStatusNot(@Param("excludedStatus") ContainerStatus excludedStatus);
+
+    /**
+     * 입찰중 용량이 잡혀 있는 컨테이너 ID 목록 (마감된 입찰 반영 대상)
+     */
+    @Query("SELECT cap.containerId FROM ContainerCapacityEntity cap WHERE cap.biddingCbm > 0")
+    List<String> findContainerIdsWithBidding();
+}
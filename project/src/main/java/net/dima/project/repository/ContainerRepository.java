@@ -4,9 +4,12 @@ import net.dima.project.entity.ContainerEntity;
 import net.dima.project.entity.ContainerStatus;
 import net.dima.project.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Sort; 
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +23,8 @@ public interface ContainerRepository extends JpaRepository<ContainerEntity, Stri
     List<ContainerEntity> findByStatus(ContainerStatus status);
     
     long countByForwarder(UserEntity forwarder); // [추가]
+
+    // 여러 포워더의 컨테이너 수를 한 번에 조회 (key: userSeq, value: 개수)
+    @Query("SELECT c.forwarder.userSeq, COUNT(c) FROM ContainerEntity c WHERE c.forwarder.userSeq IN :userSeqs GROUP BY c.forwarder.userSeq")
+    List<Object[]> countByForwarderSeqIn(@Param("userSeqs") Collection<Integer> userSeqs);
 }
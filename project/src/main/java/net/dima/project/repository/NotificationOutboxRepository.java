@@ -0,0 +1,49 @@
+package net.dima.project.repository;
+
+import net.dima.project.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * outbox 행을 추가합니다. 같은 dedupe_key 가 이미 있으면(동시에 기록 중인 경우 포함) 아무것도 하지 않고 0 을 돌려주므로,
+     * 중복 기록이 유니크 키 오류로 업무 트랜잭션을 되돌리는 일이 없습니다. (dedupe_key 가 NULL 이면 항상 추가)
+     * INSERT IGNORE 와 달리 유니크 키 충돌만 넘기고, 그 밖의 오류(길이 초과 등)는 그대로 예외가 납니다.
+     * 발행 트랜잭션이 없을 때(fallbackExecution)도 호출되므로 자체 트랜잭션을 가집니다. (있으면 참여)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO notification_outbox (event_type, payload, dedupe_key, status, attempts, created_at) " +
+           "VALUES (:eventType, :payload, :dedupeKey, 'PENDING', 0, :createdAt) " +
+           "ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    void insertIfAbsent(@Param("eventType") String eventType,
+                       @Param("payload") String payload,
+                       @Param("dedupeKey") String dedupeKey,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 발송 대기 중인 outbox 를 오래된 순으로 잠그며 가져옵니다.
+     * SKIP LOCKED 로 다른 스레드/서버가 처리 중인 행은 건너뛰므로 여러 곳에서 동시에 꺼내도 중복 처리되지 않습니다.
+     */
+    @Query(value = "SELECT * FROM notification_outbox WHERE status = 'PENDING' " +
+           "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> claimPending(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM notification_outbox WHERE id = :id AND status = 'PENDING' " +
+           "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> claimPendingById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = net.dima.project.entity.NotificationOutboxStatus.SENT " +
+           "AND o.processedAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -3,11 +3,13 @@ package net.dima.project.repository;
 import net.dima.project.entity.Notification;
 import net.dima.project.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.Modifying; // [✅ import 추가]
 import org.springframework.data.jpa.repository.Query;  
+import org.springframework.data.repository.query.Param;
 
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationRepositoryCustom {
 
     // 특정 사용자의 모든 알림을 최신순으로 조회
     List<Notification> findByReceiverAndIsReadFalseOrderByCreatedAtDesc(UserEntity receiver);
@@ -19,4 +21,13 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.receiver = :receiver")
     void markAllAsReadByUser(UserEntity receiver);
+
+    // 여러 사용자의 읽지 않은 알림 개수를 한 번에 조회 (key: userId, value: 개수)
+    @Query("SELECT n.receiver.userId, COUNT(n) FROM Notification n " +
+           "WHERE n.receiver.userSeq IN :receiverSeqs AND n.isRead = false GROUP BY n.receiver.userId")
+    List<Object[]> countUnreadByReceiverSeqIn(@Param("receiverSeqs") Collection<Integer> receiverSeqs);
+
+    // 사용자 조회 없이 userId 로 읽지 않은 알림 개수 조회 (읽지 않은 개수 캐시 적재용)
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.receiver.userId = :userId AND n.isRead = false")
+    long countUnreadByReceiverUserId(@Param("userId") String userId);
 }
\ No newline at end of file
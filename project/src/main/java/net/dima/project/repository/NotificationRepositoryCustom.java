@@ -0,0 +1,13 @@
+package net.dima.project.repository;
+
+import net.dima.project.entity.Notification;
+
+import java.util.List;
+
+public interface NotificationRepositoryCustom {
+
+    /**
+     * 알림 여러 건을 JDBC 배치 INSERT 로 저장하고, 생성된 ID와 생성 시간을 각 알림에 채워 넣습니다.
+     */
+    void insertAll(List<Notification> notifications);
+}
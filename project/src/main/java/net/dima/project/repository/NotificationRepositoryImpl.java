@@ -0,0 +1,66 @@
+package net.dima.project.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.dima.project.entity.Notification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NotificationRepository 의 JDBC 배치 구현
+ * (JPA IDENTITY 전략은 배치 INSERT 가 되지 않아 수신자가 많은 알림은 JDBC 로 한 번에 저장합니다)
+ */
+@RequiredArgsConstructor
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_SQL =
+            "INSERT INTO notification (user_seq, message, url, is_read, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Notification> notifications) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int from = 0; from < notifications.size(); from += BATCH_SIZE) {
+            List<Notification> chunk = notifications.subList(from, Math.min(from + BATCH_SIZE, notifications.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Notification notification = chunk.get(i);
+                            ps.setInt(1, notification.getReceiver().getUserSeq());
+                            ps.setString(2, notification.getMessage());
+                            ps.setString(3, notification.getUrl());
+                            ps.setBoolean(4, notification.isRead());
+                            ps.setTimestamp(5, Timestamp.valueOf(now));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size(); i++) {
+                Notification notification = chunk.get(i);
+                notification.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+                notification.setCreatedAt(now);
+            }
+        }
+    }
+}
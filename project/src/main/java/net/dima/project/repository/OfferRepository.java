@@ -1,6 +1,7 @@
 package net.dima.project.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -111,10 +112,6 @@ public interface OfferRepository extends JpaRepository<OfferEntity, Long>, JpaSp
             @Param("status") OfferStatus status,
             @Param("forwarder") UserEntity forwarder);
     
- // ... 기존 코드 ...
-    @Query("SELECT o FROM OfferEntity o JOIN FETCH o.request r JOIN FETCH r.cargo c WHERE o.container.status = :status")
-    List<OfferEntity> findAllByContainerStatus(@Param("status") ContainerStatus status);
-    
     long countByStatusAndCreatedAtBetween(OfferStatus status, LocalDateTime start, LocalDateTime end);
 
     
@@ -122,6 +119,12 @@ public interface OfferRepository extends JpaRepository<OfferEntity, Long>, JpaSp
 
     // [추가] 낙찰 성공 건수 (재판매 포함)
     long countByForwarderAndStatusIn(UserEntity forwarder, List<OfferStatus> statuses);
+
+    // 여러 포워더의 전체 입찰 수와 낙찰 수를 한 번에 조회 ([userSeq, 전체 입찰 수, 낙찰 수])
+    @Query("SELECT o.forwarder.userSeq, COUNT(o), SUM(CASE WHEN o.status IN :acceptedStatuses THEN 1 ELSE 0 END) " +
+           "FROM OfferEntity o WHERE o.forwarder.userSeq IN :userSeqs GROUP BY o.forwarder.userSeq")
+    List<Object[]> countOfferStatsByForwarderSeqIn(@Param("userSeqs") Collection<Integer> userSeqs,
+                                                   @Param("acceptedStatuses") Collection<OfferStatus> acceptedStatuses);
     
     
     
@@ -154,4 +157,15 @@ public interface OfferRepository extends JpaRepository<OfferEntity, Long>, JpaSp
     @Query("SELECT o.request.id FROM OfferEntity o WHERE o.forwarder.userId = :userId AND o.request IN :requests")
     Set<Long> findOfferedRequestIdsByUserIdAndRequestIn(@Param("userId") String userId, @Param("requests") List<RequestEntity> requests);
 
+    /**
+     * 알림 발송용: 여러 제안을 요청/화물/요청자/포워더 정보와 함께 한 번에 조회합니다.
+     */
+    @Query("SELECT o FROM OfferEntity o " +
+           "JOIN FETCH o.request r " +
+           "JOIN FETCH r.cargo c " +
+           "JOIN FETCH r.requester " +
+           "JOIN FETCH o.forwarder " +
+           "WHERE o.offerId IN :offerIds")
+    List<OfferEntity> findAllWithDetailsByOfferIdIn(@Param("offerIds") Collection<Long> offerIds);
+
 }
\ No newline at end of file
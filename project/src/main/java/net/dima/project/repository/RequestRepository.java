@@ -16,6 +16,7 @@ import org.springframework.data.domain.Page;    // [✅ import 추가]
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -85,6 +86,12 @@ public interface RequestRepository extends JpaRepository<RequestEntity, Long>, J
     // [추가] 특정 사용자가 요청한 모든 화물의 CBM 총합을 구하는 메서드
     @Query("SELECT COALESCE(SUM(c.totalCbm), 0) FROM RequestEntity r JOIN r.cargo c WHERE r.requester = :requester")
     double sumTotalCbmByRequester(@Param("requester") UserEntity requester);
+
+    // 여러 화주의 요청 수, 특정 상태 요청 수, CBM 총합을 한 번에 조회 ([userSeq, 요청 수, 상태 일치 수, CBM 합])
+    @Query("SELECT r.requester.userSeq, COUNT(r), SUM(CASE WHEN r.status = :status THEN 1 ELSE 0 END), COALESCE(SUM(c.totalCbm), 0) " +
+           "FROM RequestEntity r LEFT JOIN r.cargo c WHERE r.requester.userSeq IN :userSeqs GROUP BY r.requester.userSeq")
+    List<Object[]> sumRequestStatsByRequesterSeqIn(@Param("userSeqs") Collection<Integer> userSeqs,
+                                                   @Param("status") RequestStatus status);
     
     
     /**
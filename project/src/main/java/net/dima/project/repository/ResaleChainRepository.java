@@ -0,0 +1,58 @@
+package net.dima.project.repository;
+
+import net.dima.project.entity.OfferEntity;
+import net.dima.project.entity.RequestEntity;
+import net.dima.project.entity.ResaleChainEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ResaleChainRepository extends JpaRepository<ResaleChainEntity, Long> {
+
+    /**
+     * 여러 요청의 최종 제안을 컨테이너/포워더 정보와 함께 한 번의 쿼리로 조회합니다.
+     */
+    @Query("SELECT rc FROM ResaleChainEntity rc " +
+           "LEFT JOIN FETCH rc.finalOffer o " +
+           "LEFT JOIN FETCH o.container " +
+           "LEFT JOIN FETCH o.forwarder " +
+           "WHERE rc.requestId IN :requestIds")
+    List<ResaleChainEntity> findAllWithFinalOfferByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * 체인의 특정 깊이에서 낙찰이 확정되면, 그 요청과 모든 상위 요청의 최종 제안을 한 번에 갱신합니다.
+     * 체인에서 빠진(detached) 재판매 요청은 갱신하지 않습니다.
+     */
+    @Modifying
+    @Query("UPDATE ResaleChainEntity rc SET rc.finalOffer = :finalOffer " +
+           "WHERE rc.rootRequestId = :rootRequestId AND rc.depth <= :depth AND rc.detached = false")
+    int updateFinalOfferUpToDepth(@Param("rootRequestId") Long rootRequestId,
+                                  @Param("depth") int depth,
+                                  @Param("finalOffer") OfferEntity finalOffer);
+
+    @Modifying
+    @Query("UPDATE ResaleChainEntity rc SET rc.finalOffer = NULL WHERE rc.finalOffer IN :offers")
+    int clearFinalOffers(@Param("offers") Collection<OfferEntity> offers);
+
+    /**
+     * 여러 체인(root)의 현재 구성원 요청을 요청자, 화물 소유자와 함께 한 번의 쿼리로 조회합니다. (체인에서 빠진 요청 제외)
+     * [ResaleChainEntity, RequestEntity]
+     */
+    @Query("SELECT rc, r FROM ResaleChainEntity rc JOIN RequestEntity r ON r.requestId = rc.requestId " +
+           "JOIN FETCH r.requester JOIN FETCH r.cargo c JOIN FETCH c.owner " +
+           "WHERE rc.rootRequestId IN :rootRequestIds AND rc.detached = false")
+    List<Object[]> findChainMembersByRootIn(@Param("rootRequestIds") Collection<Long> rootRequestIds);
+
+    /**
+     * 아직 인덱스에 등록되지 않은 요청 (인덱스 도입 이전 데이터 보정용)
+     */
+    @Query("SELECT r FROM RequestEntity r WHERE NOT EXISTS " +
+           "(SELECT rc FROM ResaleChainEntity rc WHERE rc.requestId = r.requestId) ORDER BY r.requestId ASC")
+    List<RequestEntity> findRequestsWithoutChain();
+}
@@ -0,0 +1,75 @@
+package net.dima.project.repository;
+
+import net.dima.project.entity.ContainerEntity;
+import net.dima.project.entity.ContainerStatus;
+import net.dima.project.entity.SettlementEntryType;
+import net.dima.project.entity.SettlementLedgerEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface SettlementLedgerRepository extends JpaRepository<SettlementLedgerEntity, Long> {
+
+    // (user_seq, entry_type, transaction_date) 인덱스 범위 조회. keyword 는 소문자 LIKE 패턴 또는 NULL
+    String SEARCH_QUERY = "SELECT l FROM SettlementLedgerEntity l " +
+            "WHERE l.userSeq = :userSeq AND l.entryType IN :types " +
+            "AND l.transactionDate >= :from AND l.transactionDate < :to " +
+            "AND (:keyword IS NULL OR LOWER(l.itemName) LIKE :keyword OR LOWER(l.partnerName) LIKE :keyword)";
+
+    @Query(SEARCH_QUERY)
+    List<SettlementLedgerEntity> search(@Param("userSeq") Integer userSeq,
+                                        @Param("types") Collection<SettlementEntryType> types,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("keyword") String keyword,
+                                        Sort sort);
+
+    @Query(SEARCH_QUERY)
+    Page<SettlementLedgerEntity> search(@Param("userSeq") Integer userSeq,
+                                        @Param("types") Collection<SettlementEntryType> types,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("keyword") String keyword,
+                                        Pageable pageable);
+
+    /**
+     * 거래내역 내보내기용: 검색 조건에 맞는 행을 거래일 최신순으로 한 행씩 읽어옵니다.
+     * 엔티티 대신 값만 조회하고 MySQL 스트리밍(fetch size = Integer.MIN_VALUE)을 사용해, 건수와 관계없이 메모리 사용량이 일정합니다.
+     * 읽기 전용 트랜잭션 안에서 사용하고 반드시 닫아야 합니다.
+     * [거래일, 유형, 품명, 출발항, 도착항, 상대방, 금액, 통화]
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l.transactionDate, l.entryType, l.itemName, l.departurePort, l.arrivalPort, " +
+           "l.partnerName, l.price, l.currency FROM SettlementLedgerEntity l " +
+           "WHERE l.userSeq = :userSeq AND l.entryType IN :types " +
+           "AND l.transactionDate >= :from AND l.transactionDate < :to " +
+           "AND (:keyword IS NULL OR LOWER(l.itemName) LIKE :keyword OR LOWER(l.partnerName) LIKE :keyword) " +
+           "ORDER BY l.transactionDate DESC, l.ledgerId DESC")
+    Stream<Object[]> streamForExport(@Param("userSeq") Integer userSeq,
+                                     @Param("types") Collection<SettlementEntryType> types,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("keyword") String keyword);
+
+    /**
+     * 장부 도입 이전에 정산완료되어 아직 장부 기록 표시가 없는 컨테이너 (기존 데이터 보정용)
+     */
+    @Query("SELECT c FROM ContainerEntity c WHERE c.status = :status AND c.ledgerRecordedAt IS NULL")
+    List<ContainerEntity> findContainersWithoutLedger(@Param("status") ContainerStatus status);
+}
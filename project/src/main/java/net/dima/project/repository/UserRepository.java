@@ -2,7 +2,10 @@ package net.dima.project.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import net.dima.project.entity.UserEntity;
 
 /**
@@ -22,5 +25,12 @@ public interface UserRepository extends JpaRepository<UserEntity, Integer> {
     // [수정] 여러 역할을 조회할 수 있도록 In(List<String> roles)으로 변경
     List<UserEntity> findByRolesIn(List<String> roles);
 
+    // 관리자 회원 관리 목록용 (페이지/정렬)
+    Page<UserEntity> findByRolesIn(List<String> roles, Pageable pageable);
+
     long countByRoles(String roles);
+
+    // 역할별 사용자 수를 한 번에 조회 (key: roles, value: 개수)
+    @Query("SELECT u.roles, COUNT(u) FROM UserEntity u GROUP BY u.roles")
+    List<Object[]> countGroupByRoles();
 }
\ No newline at end of file
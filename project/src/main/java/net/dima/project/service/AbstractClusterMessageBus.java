@@ -0,0 +1,39 @@
+package net.dima.project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.dto.ClusterMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 채널별 처리기 등록과 이 노드 안에서의 전달을 담당하는 공통 구현
+ */
+@Slf4j
+public abstract class AbstractClusterMessageBus implements ClusterMessageBus {
+
+    private final Map<String, List<Consumer<ClusterMessage>>> handlers = new ConcurrentHashMap<>();
+
+    @Override
+    public void subscribe(String channel, Consumer<ClusterMessage> handler) {
+        handlers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    protected void deliverLocally(ClusterMessage message) {
+        List<Consumer<ClusterMessage>> channelHandlers = handlers.get(message.getChannel());
+        if (channelHandlers == null) {
+            log.debug("Cluster: No handler for channel {}", message.getChannel());
+            return;
+        }
+        for (Consumer<ClusterMessage> handler : channelHandlers) {
+            try {
+                handler.accept(message);
+            } catch (RuntimeException e) {
+                log.error("Cluster: Handler failed for channel {} (target {})", message.getChannel(), message.getTarget(), e);
+            }
+        }
+    }
+}
@@ -3,23 +3,35 @@ package net.dima.project.service;
 import lombok.RequiredArgsConstructor;
 import net.dima.project.dto.DashboardMetricsDto;
 import net.dima.project.dto.ForwarderInfoDto;
+import net.dima.project.dto.RouteVolumeDto;
 import net.dima.project.dto.UserInfoDto;
 import net.dima.project.dto.VolumeDto;
 import net.dima.project.entity.*;
+import net.dima.project.repository.ContainerCapacityRepository;
 import net.dima.project.repository.ContainerRepository;
 import net.dima.project.repository.OfferRepository;
 import net.dima.project.repository.RequestRepository;
 import net.dima.project.repository.ScfiDataRepository;
 import net.dima.project.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +44,14 @@ public class AdminService {
     private final UserRepository userRepository;
     private final RequestRepository requestRepository;
     private final ScfiDataRepository scfiDataRepository; 
+    private final ContainerCapacityRepository containerCapacityRepository;
+    private final DashboardCounterService dashboardCounterService;
+
+    @Value("${admin.volume.cache-ttl-seconds:30}")
+    private long volumeCacheTtlSeconds;
+    private volatile CachedVolume cachedVolume;
+
+    private static final Set<String> USER_SORT_FIELDS = Set.of("createDate", "companyName", "userName", "userId");
     
     // [추가] SCFI 데이터 저장 메서드
     public void saveScfiData(LocalDate recordDate, BigDecimal indexValue) {
@@ -43,21 +63,31 @@ public class AdminService {
         scfiData.setRecordDate(recordDate);
         scfiData.setIndexValue(indexValue);
         scfiDataRepository.save(scfiData);
+        dashboardCounterService.scfiDataChanged();
     }
     
-    // [추가] 포워더 목록 조회
+    // [추가] 포워더 목록 조회 (페이지 단위, 활동 요약은 페이지의 포워더 전체를 묶어서 집계)
     @Transactional(readOnly = true)
-    public List<ForwarderInfoDto> getForwarderList() {
+    public Page<ForwarderInfoDto> getForwarderList(Pageable pageable) {
     	List<String> targetRoles = List.of("ROLE_fwd", "ROLE_PENDING");
-    	List<UserEntity> forwarders = userRepository.findByRolesIn(targetRoles);
+    	Page<UserEntity> forwarders = userRepository.findByRolesIn(targetRoles, toUserSort(pageable));
         List<OfferStatus> acceptedStatuses = List.of(OfferStatus.ACCEPTED, OfferStatus.RESOLD, OfferStatus.CONFIRMED, OfferStatus.SHIPPED, OfferStatus.COMPLETED);
+        if (forwarders.isEmpty()) {
+            return forwarders.map(fwd -> ForwarderInfoDto.from(fwd, 0, 0, 0));
+        }
 
-        return forwarders.stream().map(fwd -> {
-            long containerCount = containerRepository.countByForwarder(fwd);
-            long totalOffers = offerRepository.countByForwarder(fwd);
-            long acceptedOffers = offerRepository.countByForwarderAndStatusIn(fwd, acceptedStatuses);
-            return ForwarderInfoDto.from(fwd, containerCount, totalOffers, acceptedOffers);
-        }).collect(Collectors.toList());
+        List<Integer> userSeqs = forwarders.map(UserEntity::getUserSeq).getContent();
+        Map<Integer, Long> containerCounts = containerRepository.countByForwarderSeqIn(userSeqs).stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], row -> (Long) row[1]));
+        Map<Integer, Object[]> offerStats = offerRepository.countOfferStatsByForwarderSeqIn(userSeqs, acceptedStatuses).stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], Function.identity()));
+
+        return forwarders.map(fwd -> {
+            Object[] stats = offerStats.get(fwd.getUserSeq());
+            long totalOffers = stats != null ? ((Number) stats[1]).longValue() : 0;
+            long acceptedOffers = stats != null ? ((Number) stats[2]).longValue() : 0;
+            return ForwarderInfoDto.from(fwd, containerCounts.getOrDefault(fwd.getUserSeq(), 0L), totalOffers, acceptedOffers);
+        });
     }
 
  // [수정] 메서드 전체를 아래 코드로 교체합니다.
@@ -65,6 +95,8 @@ public class AdminService {
         UserEntity user = userRepository.findById(userSeq)
                 .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다."));
 
+        String previousRole = user.getRoles();
+
         // 1. 승인 상태(approvalStatus)를 변경합니다.
         user.setApprovalStatus(status);
 
@@ -80,119 +112,107 @@ public class AdminService {
         // "PENDING" 상태로 변경하는 경우는 별도의 역할 변경이 필요 없습니다.
 
         userRepository.save(user);
+        dashboardCounterService.userRoleChanged(previousRole, user.getRoles());
     }
     
 
-    // [추가] 화주 목록 조회
+    // [추가] 화주 목록 조회 (페이지 단위, 활동 요약은 페이지의 화주 전체를 묶어서 집계)
     @Transactional(readOnly = true)
-    public List<UserInfoDto> getUserList() {
+    public Page<UserInfoDto> getUserList(Pageable pageable) {
         // [수정] "ROLE_cus" 역할을 가진 모든 유저를 조회하도록 변경
-        List<UserEntity> users = userRepository.findByRolesIn(List.of("ROLE_cus"));
-
-        return users.stream().map(user -> {
-            long totalRequests = requestRepository.countByRequester(user);
-            long completedDeals = requestRepository.countByRequesterAndStatus(user, RequestStatus.CLOSED);
-            double totalCbm = requestRepository.sumTotalCbmByRequester(user);
-            return UserInfoDto.from(user, totalRequests, completedDeals, totalCbm);
-        }).collect(Collectors.toList());
+        Page<UserEntity> users = userRepository.findByRolesIn(List.of("ROLE_cus"), toUserSort(pageable));
+        if (users.isEmpty()) {
+            return users.map(user -> UserInfoDto.from(user, 0, 0, 0));
+        }
+
+        Map<Integer, Object[]> requestStats = requestRepository.sumRequestStatsByRequesterSeqIn(
+                        users.map(UserEntity::getUserSeq).getContent(), RequestStatus.CLOSED).stream()
+                .collect(Collectors.toMap(row -> (Integer) row[0], Function.identity()));
+
+        return users.map(user -> {
+            Object[] stats = requestStats.get(user.getUserSeq());
+            if (stats == null) {
+                return UserInfoDto.from(user, 0, 0, 0);
+            }
+            return UserInfoDto.from(user, ((Number) stats[1]).longValue(), ((Number) stats[2]).longValue(),
+                    ((Number) stats[3]).doubleValue());
+        });
     }
-    
-    // [추가] 대시보드 지표 계산 메서드
+
+    /**
+     * 회원 목록은 회원 정보 컬럼으로만 정렬합니다. (허용되지 않은 정렬 값은 가입일 최신순으로 대체)
+     */
+    private Pageable toUserSort(Pageable pageable) {
+        boolean supported = pageable.getSort().stream()
+                .allMatch(order -> USER_SORT_FIELDS.contains(order.getProperty()));
+        if (supported && pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "createDate"));
+    }
+
+    // [추가] 대시보드 지표 계산 메서드 (쓰기 작업에서 갱신되는 카운터 저장소의 값을 읽음)
     @Transactional(readOnly = true)
     public DashboardMetricsDto getDashboardMetrics() {
-    	LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-        LocalDateTime deadlineThreshold = LocalDateTime.now().plusDays(1); // 마감 1일 전
-
-        long todayRequests = requestRepository.countByCreatedAtBetween(startOfDay, endOfDay);
-        long todayDeals = offerRepository.countByStatusAndCreatedAtBetween(OfferStatus.ACCEPTED, startOfDay, endOfDay);
-
-        long totalFwdUsers = userRepository.countByRoles("ROLE_fwd");
-        long totalCusUsers = userRepository.countByRoles("ROLE_cus");
-        long pendingUsers = userRepository.countByRoles("ROLE_PENDING"); // '승인 대기' 역할 기준
-        long noBidRequests = requestRepository.countOpenRequestsWithNoBids(deadlineThreshold);
-        
-        
-        // [✅ 아래 계산 로직을 추가해주세요]
-        long missedConfirmations = requestRepository.countOpenRequestsWithBidsPastDeadline(now);
-        long totalClosedOrExpired = requestRepository.countTotalClosedOrExpiredRequests(now);
-
-        Double missedConfirmationRate = (totalClosedOrExpired == 0) ? 0.0 :
-                ((double) missedConfirmations / totalClosedOrExpired) * 100;
-
-
-        // [추가] SCFI 등락률 계산 로직
-        List<ScfiData> latestTwoScfi = scfiDataRepository.findTop2ByOrderByRecordDateDesc();
-        Double scfiChangePercentage = null;
-        String scfiStatus = "NORMAL";
-
-        if (latestTwoScfi.size() == 2) {
-            BigDecimal latest = latestTwoScfi.get(0).getIndexValue();
-            BigDecimal previous = latestTwoScfi.get(1).getIndexValue();
-
-            if (previous.compareTo(BigDecimal.ZERO) != 0) {
-                BigDecimal change = latest.subtract(previous);
-                BigDecimal percentage = change.divide(previous, 4, RoundingMode.HALF_UP)
-                                              .multiply(new BigDecimal("100"));
-                scfiChangePercentage = percentage.doubleValue();
-
-                if (scfiChangePercentage >= 5.0) {
-                    scfiStatus = "GREEN";
-                } else if (scfiChangePercentage <= -5.0) {
-                    scfiStatus = "RED";
-                }
-            }
-        }
+        return dashboardCounterService.snapshot();
+    }
 
-        return DashboardMetricsDto.builder()
-                .todayRequests(todayRequests)
-                .todayDeals(todayDeals)
-                .totalFwdUsers(totalFwdUsers)
-                .totalCusUsers(totalCusUsers)
-                .pendingUsers(pendingUsers)
-                .noBidRequests(noBidRequests)
-                .scfiChangePercentage(scfiChangePercentage) // [추가]
-                .scfiStatus(scfiStatus)                   // [추가]
-                .missedConfirmationRate(missedConfirmationRate)
+    // 물동량 그래프 계산 메서드
+    // '운송 예정' 컨테이너의 용량 장부를 구간/출항일 단위로 한 번에 합산하고, 짧은 시간 동안 캐시합니다.
+    // (입찰 마감이 지난 물량은 장부 정리 작업 주기만큼 늦게 빠질 수 있습니다)
+    @Transactional(readOnly = true)
+    public VolumeDto getSystemVolume(boolean withBreakdown) {
+        CachedVolume cached = cachedVolume;
+        if (cached == null || cached.computedAt().plusSeconds(volumeCacheTtlSeconds).isBefore(LocalDateTime.now())) {
+            cached = new CachedVolume(computeSystemVolume(), LocalDateTime.now());
+            cachedVolume = cached;
+        }
+        VolumeDto volume = cached.volume();
+        if (withBreakdown) {
+            return volume;
+        }
+        return VolumeDto.builder()
+                .confirmedCbm(volume.getConfirmedCbm())
+                .resaleCbm(volume.getResaleCbm())
+                .biddingCbm(volume.getBiddingCbm())
+                .availableCbm(volume.getAvailableCbm())
                 .build();
     }
 
-    // 기존 물동량 그래프 계산 메서드
-    @Transactional(readOnly = true)
-    public VolumeDto getSystemVolume() {
-        List<OfferEntity> offersInScheduledContainers = offerRepository.findAllByContainerStatus(ContainerStatus.SCHEDULED);
-        LocalDateTime now = LocalDateTime.now();
-
-        double confirmedCbm = 0;
-        double resaleCbm = 0;
-        double biddingCbm = 0;
-
-        for (OfferEntity offer : offersInScheduledContainers) {
-            OfferStatus status = offer.getStatus();
-            double cbm = offer.getRequest().getCargo().getTotalCbm();
-
-            if (status == OfferStatus.ACCEPTED) {
-                confirmedCbm += cbm;
-            } else if (status == OfferStatus.FOR_SALE) {
-                resaleCbm += cbm;
-            } else if (status == OfferStatus.PENDING && offer.getRequest().getDeadline().isAfter(now)) {
-                biddingCbm += cbm;
-            }
+    private VolumeDto computeSystemVolume() {
+        Map<String, RouteVolumeDto> byRouteAndWeek = new LinkedHashMap<>();
+        for (Object[] row : containerCapacityRepository.sumVolumeByRouteAndEtd(ContainerStatus.SCHEDULED)) {
+            String departurePort = (String) row[0];
+            String arrivalPort = (String) row[1];
+            LocalDate etdWeek = ((LocalDate) row[2]).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            double capacity = ((Number) row[3]).doubleValue();
+            double confirmed = ((Number) row[4]).doubleValue();
+            double resale = ((Number) row[5]).doubleValue();
+            double bidding = ((Number) row[6]).doubleValue();
+
+            RouteVolumeDto route = byRouteAndWeek.computeIfAbsent(departurePort + "|" + arrivalPort + "|" + etdWeek,
+                    key -> RouteVolumeDto.builder().departurePort(departurePort).arrivalPort(arrivalPort).etdWeek(etdWeek).build());
+            route.setConfirmedCbm(route.getConfirmedCbm() + confirmed);
+            route.setResaleCbm(route.getResaleCbm() + resale);
+            route.setBiddingCbm(route.getBiddingCbm() + bidding);
+            route.setAvailableCbm(route.getAvailableCbm() + capacity - confirmed - resale - bidding);
         }
 
-        List<ContainerEntity> scheduledContainers = containerRepository.findByStatus(ContainerStatus.SCHEDULED);
-        double totalScheduledCapacity = scheduledContainers.stream()
-                .mapToDouble(ContainerEntity::getCapacityCbm)
-                .sum();
-        double totalUsedCbm = confirmedCbm + resaleCbm + biddingCbm;
-        double availableCbm = totalScheduledCapacity - totalUsedCbm;
+        List<RouteVolumeDto> breakdown = byRouteAndWeek.values().stream()
+                .sorted(Comparator.comparing(RouteVolumeDto::getEtdWeek)
+                        .thenComparing(RouteVolumeDto::getDeparturePort)
+                        .thenComparing(RouteVolumeDto::getArrivalPort))
+                .collect(Collectors.toList());
 
         return VolumeDto.builder()
-                .confirmedCbm(confirmedCbm)
-                .resaleCbm(resaleCbm)
-                .biddingCbm(biddingCbm)
-                .availableCbm(availableCbm)
+                .confirmedCbm(breakdown.stream().mapToDouble(RouteVolumeDto::getConfirmedCbm).sum())
+                .resaleCbm(breakdown.stream().mapToDouble(RouteVolumeDto::getResaleCbm).sum())
+                .biddingCbm(breakdown.stream().mapToDouble(RouteVolumeDto::getBiddingCbm).sum())
+                .availableCbm(breakdown.stream().mapToDouble(RouteVolumeDto::getAvailableCbm).sum())
+                .breakdown(breakdown)
                 .build();
     }
-}
\ No newline at end of file
+
+    private record CachedVolume(VolumeDto volume, LocalDateTime computedAt) {
+    }
+}
@@ -0,0 +1,48 @@
+package net.dima.project.service;
+
+import java.time.Instant;
+
+/**
+ * 채팅 메시지 ID 생성기 (DB 저장 전에 서버에서 ID 를 정함)
+ * [경과 시간(ms) 41비트][노드 4비트][순번 8비트] = 53비트로, 시간 순으로 증가하고
+ * 브라우저(JavaScript Number)에서도 정밀도 손실 없이 다룰 수 있습니다.
+ * 기존 자동 증가 ID 보다 항상 크므로 messageId 커서 조회 순서도 그대로 유지됩니다.
+ */
+class ChatMessageIdGenerator {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 4;
+    private static final int SEQUENCE_BITS = 8;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private long lastMillis = -1;
+    private long sequence;
+
+    ChatMessageIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("채팅 노드 ID 는 0 ~ " + MAX_NODE_ID + " 사이여야 합니다: " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    synchronized long nextId() {
+        // 시계가 뒤로 가도 마지막 시각을 계속 사용해 ID 가 줄어들지 않도록 합니다.
+        long now = Math.max(System.currentTimeMillis() - EPOCH_MILLIS, lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // 같은 ms 에 순번을 다 쓰면 다음 ms 까지 기다립니다. (노드당 초당 약 25만 건)
+                while (now <= lastMillis) {
+                    Thread.onSpinWait();
+                    now = System.currentTimeMillis() - EPOCH_MILLIS;
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return (now << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,325 @@
+package net.dima.project.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 채팅 메시지 쓰기 지연(write-behind) 저널
+ * 메시지는 ID 를 받아 메모리 대기열에 넣는 즉시 전송되고, 전용 스레드가 대기열을 모아 JDBC 배치로 저장합니다.
+ *
+ * 보장 범위:
+ * - 정상 종료 시에는 남은 메시지를 모두 저장한 뒤 내려갑니다.
+ * - 프로세스가 비정상 종료되면 아직 저장되지 않은 메시지(보통 linger-ms 이내, DB 장애 중에는 대기열 전체)는 유실됩니다.
+ *   이미 상대방에게 전송된 메시지라도 이력 조회에서 빠질 수 있습니다.
+ * - DB 오류 시 같은 배치를 retry-delay-ms 간격으로 최대 max-attempts 번까지 다시 시도합니다.
+ *   배치는 한 트랜잭션으로 저장되므로, 실패한 배치를 다시 써도 같은 메시지가 두 번 저장되지 않습니다.
+ * - 그래도 실패하면 배치를 한 건씩 나눠 저장합니다. 데이터 자체가 문제인 메시지(ID 충돌, 길이 초과 등)만
+ *   로그를 남기고 제외(chat.journal.parked)하며, DB 장애처럼 모든 메시지에 해당하는 오류면 버리지 않고 계속 재시도합니다.
+ * - 대기열이 가득 차면(capacity) 새 메시지를 받지 않고 예외를 던집니다. (전송도 되지 않음)
+ * - 저장 완료 전까지는 메시지 목록 API 에 보이지 않을 수 있습니다. (실시간 전송은 이미 완료)
+ */
+@Component
+@Slf4j
+public class ChatMessageJournal {
+
+    /**
+     * 저장 대기 중인 메시지
+     */
+    public record Entry(long messageId, Long chatRoomId, Integer senderSeq, String content, LocalDateTime sentAt) {
+    }
+
+    private final ChatMessageSink sink;
+    private final ChatMessageIdGenerator idGenerator;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final long retryDelayMillis;
+    private final int maxAttempts;
+
+    private final Counter flushedCounter;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+    private final Counter parkedCounter;
+
+    // 대기열에 들어간 건수 / 저장 후 처리까지 끝난 건수 (대기열이 FIFO 이므로 flushed >= n 이면 n번째까지 모두 저장됨)
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final Object flushMonitor = new Object();
+    // ID·대기열 순번이 대기열 순서와 어긋나지 않도록 ID 부여, 넣기, 순번 부여를 함께 묶습니다.
+    private final Object appendMonitor = new Object();
+    // key: chatRoomId, value: 그 방의 마지막 메시지 순번 (저장이 끝나면 제거되므로 저장 대기 중인 방만 남음)
+    private final Map<Long, Long> lastAppendedByRoom = new ConcurrentHashMap<>();
+
+    private volatile Consumer<List<Entry>> flushListener = entries -> { };
+    private volatile boolean running = true;
+    private final Thread flusher;
+
+    ChatMessageJournal(ChatMessageSink sink,
+                       MeterRegistry meterRegistry,
+                       @Value("${chat.journal.node-id:-1}") int nodeId,
+                       @Value("${cluster.bus.type:local}") String clusterBusType,
+                       @Value("${chat.journal.capacity:50000}") int capacity,
+                       @Value("${chat.journal.batch-size:500}") int batchSize,
+                       @Value("${chat.journal.linger-ms:20}") long lingerMillis,
+                       @Value("${chat.journal.retry-delay-ms:1000}") long retryDelayMillis,
+                       @Value("${chat.journal.max-attempts:5}") int maxAttempts) {
+        this.sink = sink;
+        this.idGenerator = new ChatMessageIdGenerator(resolveNodeId(nodeId, clusterBusType));
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        this.flushedCounter = meterRegistry.counter("chat.journal.flushed");
+        this.failureCounter = meterRegistry.counter("chat.journal.flush.failures");
+        this.rejectedCounter = meterRegistry.counter("chat.journal.rejected");
+        this.parkedCounter = meterRegistry.counter("chat.journal.parked");
+        Gauge.builder("chat.journal.pending", queue, BlockingQueue::size).register(meterRegistry);
+
+        this.flusher = new Thread(this::runFlusher, "chat-journal");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * 여러 서버(cluster.bus.type=jdbc)로 운영하면 서버마다 다른 node-id 가 있어야 메시지 ID 가 겹치지 않으므로,
+     * 지정하지 않은 채로는 시작하지 않습니다. 서버가 하나뿐이면 0 을 씁니다.
+     */
+    static int resolveNodeId(int nodeId, String clusterBusType) {
+        if (nodeId >= 0) {
+            return nodeId;
+        }
+        if ("jdbc".equalsIgnoreCase(clusterBusType)) {
+            throw new IllegalStateException(
+                    "cluster.bus.type=jdbc 로 운영할 때는 서버마다 다른 chat.journal.node-id (0~"
+                            + ChatMessageIdGenerator.MAX_NODE_ID + ") 를 지정해야 합니다.");
+        }
+        return 0;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.start();
+    }
+
+    /**
+     * 배치가 저장(커밋)된 뒤 호출할 처리기를 등록합니다. (안 읽은 수 갱신, 알림 등)
+     */
+    public void onFlushed(Consumer<List<Entry>> listener) {
+        this.flushListener = listener;
+    }
+
+    /**
+     * 메시지에 ID 를 부여하고 저장 대기열에 넣습니다.
+     * @throws IllegalStateException 대기열이 가득 찬 경우 (DB 저장이 처리량을 따라가지 못함)
+     */
+    public Entry append(Long chatRoomId, Integer senderSeq, String content) {
+        Entry entry;
+        synchronized (appendMonitor) {
+            // ID 도 같은 잠금 안에서 받아 대기열(저장) 순서가 ID 순서와 같게 합니다. (messageId 커서 조회가 메시지를 건너뛰지 않도록)
+            entry = new Entry(idGenerator.nextId(), chatRoomId, senderSeq, content, LocalDateTime.now());
+            if (!queue.offer(entry)) {
+                rejectedCounter.increment();
+                throw new IllegalStateException("채팅 메시지가 많아 잠시 후 다시 시도해주세요.");
+            }
+            lastAppendedByRoom.put(chatRoomId, appendedCount.incrementAndGet());
+        }
+        return entry;
+    }
+
+    /**
+     * 지금까지 대기열에 들어간 메시지가 모두 저장될 때까지 최대 timeoutMillis 동안 기다립니다.
+     * (읽음 처리처럼 방금 보낸 메시지까지 DB 에 있어야 하는 작업용)
+     * @return 시간 안에 모두 저장되었으면 true
+     */
+    public boolean awaitFlushed(long timeoutMillis) {
+        return awaitFlushedUpTo(appendedCount.get(), timeoutMillis);
+    }
+
+    /**
+     * 해당 방에 지금까지 들어온 메시지가 모두 저장될 때까지 최대 timeoutMillis 동안 기다립니다.
+     * 다른 방의 메시지는 기다리지 않으며, 저장 대기 중인 메시지가 없으면 바로 돌아옵니다.
+     * @return 시간 안에 모두 저장되었으면 true
+     */
+    public boolean awaitFlushed(Long chatRoomId, long timeoutMillis) {
+        Long target = lastAppendedByRoom.get(chatRoomId);
+        return target == null || awaitFlushedUpTo(target, timeoutMillis);
+    }
+
+    private boolean awaitFlushedUpTo(long target, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (flushMonitor) {
+            while (flushedCount.get() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    flushMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 종료 시 새 메시지는 더 받지 않고, 남은 메시지를 저장할 때까지 기다립니다.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(30_000);
+        if (flusher.isAlive()) {
+            log.error("Chat: Shutdown timed out with {} messages still pending", queue.size());
+        }
+    }
+
+    private void runFlusher() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        int failedAttempts = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    // 잠시 기다려 같이 들어온 메시지를 한 배치로 모읍니다.
+                    if (running && lingerMillis > 0 && queue.size() < batchSize - 1) {
+                        Thread.sleep(lingerMillis);
+                    }
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                if (failedAttempts < maxAttempts) {
+                    sink.write(batch);
+                    completed(batch, batch);
+                    batch = new ArrayList<>(batchSize);
+                } else {
+                    // 재시도 한도를 넘긴 배치는 한 건씩 저장해 문제 메시지만 걸러냅니다.
+                    batch = writeOneByOne(batch);
+                    if (!batch.isEmpty()) {
+                        // 한 건 저장도 데이터와 무관한 오류로 실패: DB 장애로 보고 남은 메시지를 나중에 다시 시도합니다.
+                        failureCounter.increment();
+                        if (!running) {
+                            log.error("Chat: Failed to persist messages during shutdown, {} messages lost", batch.size() + queue.size());
+                            return;
+                        }
+                        sleepQuietly(retryDelayMillis);
+                        continue;
+                    }
+                }
+                failedAttempts = 0;
+            } catch (InterruptedException e) {
+                // 종료 신호: running=false 가 되었으므로 남은 메시지를 지연 없이 마저 저장합니다.
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                if (!running) {
+                    // 종료 중 DB 장애: 더 기다리지 않고 유실 건수를 남깁니다.
+                    log.error("Chat: Failed to persist messages during shutdown, {} messages lost", batch.size() + queue.size(), e);
+                    return;
+                }
+                failedAttempts++;
+                log.error("Chat: Failed to persist {} messages (attempt {}/{}), retrying in {}ms",
+                        batch.size(), failedAttempts, maxAttempts, retryDelayMillis, e);
+                sleepQuietly(retryDelayMillis);
+            }
+        }
+    }
+
+    /**
+     * 배치를 한 건씩 각자의 트랜잭션으로 저장합니다.
+     * 데이터 문제로 실패한 메시지는 로그를 남기고 제외하고, 그 밖의 오류가 나면 그 자리에서 멈춥니다.
+     * @return 아직 처리하지 못한 메시지 (모두 처리했으면 빈 목록)
+     */
+    private List<Entry> writeOneByOne(List<Entry> batch) {
+        List<Entry> persisted = new ArrayList<>(batch.size());
+        int processed = 0;
+        for (Entry entry : batch) {
+            try {
+                sink.write(List.of(entry));
+                persisted.add(entry);
+            } catch (DataIntegrityViolationException | IncorrectUpdateSemanticsDataAccessException e) {
+                park(entry, e);
+            } catch (RuntimeException e) {
+                log.error("Chat: Failed to persist message {} one by one, {} messages left for retry",
+                        entry.messageId(), batch.size() - processed, e);
+                break;
+            }
+            processed++;
+        }
+        completed(batch.subList(0, processed), persisted);
+        return processed == batch.size()
+                ? new ArrayList<>(batchSize)
+                : new ArrayList<>(batch.subList(processed, batch.size()));
+    }
+
+    /**
+     * 저장할 수 없는 메시지를 내용과 함께 로그로 남기고 제외합니다. (운영자가 로그에서 복구)
+     */
+    private void park(Entry entry, RuntimeException cause) {
+        parkedCounter.increment();
+        log.error("Chat: Parked unpersistable message {} (room {}, sender {}, sentAt {}): {}",
+                entry.messageId(), entry.chatRoomId(), entry.senderSeq(), entry.sentAt(), entry.content(), cause);
+    }
+
+    /**
+     * 처리가 끝난 메시지(저장 또는 제외)를 반영합니다.
+     * @param processed 대기열 순서대로 처리가 끝난 메시지
+     * @param persisted 그중 실제로 저장된 메시지
+     */
+    private void completed(List<Entry> processed, List<Entry> persisted) {
+        if (!persisted.isEmpty()) {
+            flushedCounter.increment(persisted.size());
+            notifyFlushed(persisted);
+        }
+        long flushed;
+        synchronized (flushMonitor) {
+            flushed = flushedCount.addAndGet(processed.size());
+            flushMonitor.notifyAll();
+        }
+        for (Entry entry : processed) {
+            lastAppendedByRoom.computeIfPresent(entry.chatRoomId(), (roomId, last) -> last <= flushed ? null : last);
+        }
+    }
+
+    private void notifyFlushed(List<Entry> batch) {
+        try {
+            flushListener.accept(batch);
+        } catch (RuntimeException e) {
+            // 저장은 끝났으므로 후속 처리 실패로 배치를 다시 쓰지 않습니다.
+            log.warn("Chat: Post-flush handling failed for {} messages", batch.size(), e);
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+            // 종료 신호는 running 플래그로 확인합니다.
+        }
+    }
+}
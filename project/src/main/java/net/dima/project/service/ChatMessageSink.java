@@ -0,0 +1,12 @@
+package net.dima.project.service;
+
+import java.util.List;
+
+/**
+ * 채팅 저널이 모은 메시지 배치를 실제로 저장하는 곳
+ * 한 번의 호출은 하나의 트랜잭션이어야 합니다. (예외가 나면 배치 전체가 저장되지 않아야 재시도가 안전함)
+ */
+interface ChatMessageSink {
+
+    void write(List<ChatMessageJournal.Entry> batch);
+}
@@ -1,34 +1,68 @@
 package net.dima.project.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import net.dima.project.dto.ChatMessageDto;
 import net.dima.project.dto.ChatRoomDto;
+import net.dima.project.dto.CursorPageDto;
 import net.dima.project.entity.*;
 import net.dima.project.repository.ChatMessageRepository;
 import net.dima.project.repository.ChatRoomRepository;
 import net.dima.project.repository.ContainerCargoRepository;
 import net.dima.project.repository.UserRepository;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ChatService {
 
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+    private static final long READ_FLUSH_WAIT_MILLIS = 1_000;
+    private static final int ROOM_MEMBER_CACHE_SIZE = 10_000;
+    private static final DateTimeFormatter LAST_MESSAGE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final ChatRoomRepository chatRoomRepository;
     private final ContainerCargoRepository containerCargoRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
     private final SseEmitterService sseEmitterService; // [✅ 추가]
+    private final UnreadCounterService unreadCounterService;
+    private final ChatMessageJournal chatMessageJournal;
+    private final TransactionTemplate transactionTemplate;
+
+    // key: chatRoomId (LRU)
+    private final Map<Long, List<RoomMember>> roomMemberCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<RoomMember>> eldest) {
+            return size() > ROOM_MEMBER_CACHE_SIZE;
+        }
+    };
+
+    @PostConstruct
+    public void registerJournalListener() {
+        chatMessageJournal.onFlushed(this::onMessagesFlushed);
+    }
 
     public void createChatRoomForOffer(OfferEntity offer) {
         if (chatRoomRepository.findByOffer(offer).isPresent()) {
@@ -68,105 +102,180 @@ public class ChatService {
         });
     }
     
+    /**
+     * 사용자의 활성 채팅방 목록 (이름 구성 정보, 마지막 메시지, 안 읽은 수를 한 번의 쿼리로 조회, 최근 메시지 순)
+     */
     @Transactional(readOnly = true)
     public List<ChatRoomDto> getChatRoomsForUser(Integer userSeq) {
-        return chatRoomRepository.findAllByUserSeq(userSeq).stream()
-                .filter(chatRoom -> chatRoom.getStatus() == ChatRoomStatus.ACTIVE)
-                .map(chatRoom -> toChatRoomDto(chatRoom, userSeq))
-                .sorted(Comparator.comparing(ChatRoomDto::getLastMessageTime, Comparator.nullsLast(Comparator.reverseOrder())))
-                .collect(Collectors.toList());
+        List<Object[]> rows = chatRoomRepository.findRoomSummariesByUserSeq(userSeq, ChatRoomStatus.ACTIVE);
+
+        Map<Long, Long> unreadCounts = new HashMap<>();
+        List<ChatRoomDto> rooms = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long chatRoomId = (Long) row[0];
+            String myRole = (String) row[1];
+            String customName = (String) row[2];
+            String otherCompanyName = (String) row[3];
+            String itemName = (String) row[4];
+            LocalDateTime lastMessageAt = (LocalDateTime) row[6];
+            long unreadCount = ((Number) row[7]).longValue();
+            unreadCounts.put(chatRoomId, unreadCount);
+
+            String roomName;
+            if (customName != null && !customName.isBlank()) {
+                roomName = customName;
+            } else {
+                String rolePrefix = "REQUESTER".equals(myRole) ? "[운송사]" : "[화주]";
+                roomName = String.format("%s %s '%s'", rolePrefix,
+                        otherCompanyName != null ? otherCompanyName : "알 수 없음", itemName);
+            }
+
+            rooms.add(ChatRoomDto.builder()
+                    .chatRoomId(chatRoomId)
+                    .roomName(roomName)
+                    .lastMessage((String) row[5])
+                    .lastMessageTime(lastMessageAt != null ? lastMessageAt.format(LAST_MESSAGE_TIME_FORMAT) : null)
+                    .unreadCount((int) unreadCount)
+                    .build());
+        }
+        // 함께 조회한 안 읽은 수로 캐시를 갱신 (헤더 배지 등 다른 조회가 다시 집계하지 않도록)
+        unreadCounterService.primeChatCounts(unreadCounts, userSeq);
+        return rooms;
     }
 
+    /**
+     * 채팅방 메시지를 messageId 커서로 나눠 조회합니다. content 는 항상 오래된 메시지부터 정렬됩니다.
+     * - 커서가 없으면 가장 최근 size 개, nextCursor 는 더 오래된 메시지를 불러올 before 값
+     * - before 가 있으면 그 메시지보다 오래된 size 개 (위로 스크롤할 때)
+     * - after 가 있으면 그 메시지보다 새로운 size 개, nextCursor 는 다음 after 값 (재연결 후 놓친 메시지 보충)
+     */
     @Transactional(readOnly = true)
-    public List<ChatMessageDto> getMessagesForChatRoom(Long chatRoomId) {
-        return chatMessageRepository.findByChatRoom_ChatRoomIdOrderBySentAtAsc(chatRoomId).stream()
-                .map(ChatMessageDto::fromEntity)
-                .collect(Collectors.toList());
-    }
+    public CursorPageDto<ChatMessageDto> getMessagesForChatRoom(Long chatRoomId, Long before, Long after, int size) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("before 와 after 는 함께 사용할 수 없습니다.");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_MESSAGE_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
 
-    // [✅ 수정] 메시지 저장 시 SSE 이벤트 발생 로직 추가
-    public ChatMessage saveMessage(ChatMessageDto dto) {
-        UserEntity sender = userRepository.findById(dto.getSenderSeq())
-                .orElseThrow(() -> new UsernameNotFoundException("사용자를 찾을 수 없습니다."));
-        ChatRoom chatRoom = chatRoomRepository.findById(dto.getChatRoomId())
-                .orElseThrow(() -> new IllegalArgumentException("채팅방을 찾을 수 없습니다."));
+        List<ChatMessage> rows;
+        if (after != null) {
+            rows = chatMessageRepository.findByRoomAfter(chatRoomId, after, limit);
+        } else if (before != null) {
+            rows = chatMessageRepository.findByRoomBefore(chatRoomId, before, limit);
+        } else {
+            rows = chatMessageRepository.findLatestByRoom(chatRoomId, limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<ChatMessage> pageRows = new ArrayList<>(hasNext ? rows.subList(0, pageSize) : rows);
+        if (after == null) {
+            Collections.reverse(pageRows); // 최신순으로 읽은 결과를 화면 표시 순서(오래된 순)로
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            ChatMessage edge = (after != null) ? pageRows.get(pageRows.size() - 1) : pageRows.get(0);
+            nextCursor = String.valueOf(edge.getMessageId());
+        }
 
-        ChatMessage chatMessage = ChatMessage.builder()
-                .chatRoom(chatRoom)
-                .sender(sender)
-                .messageContent(dto.getMessageContent())
+        return CursorPageDto.<ChatMessageDto>builder()
+                .content(pageRows.stream().map(ChatMessageDto::fromEntity).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
                 .build();
-        
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
-
-        // 트랜잭션 커밋 후 SSE 이벤트 전송
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-            @Override
-            public void afterCommit() {
-                chatRoom.getParticipants().stream()
-                    .filter(p -> !p.getUser().getUserSeq().equals(sender.getUserSeq()))
-                    .findFirst()
-                    .ifPresent(receiverParticipant -> {
-                        String receiverUserId = receiverParticipant.getUser().getUserId();
-                        sseEmitterService.sendToClient(receiverUserId, "unreadChat", "new message");
-                    });
-            }
-        });
-        
-        return savedMessage;
     }
 
-    // [✅ 추가] 메시지 읽음 처리 메서드
-    public void markMessagesAsRead(Long roomId, Integer userSeq) {
-        chatMessageRepository.markAsReadByRoomIdAndUserSeq(roomId, userSeq);
-
-        // 트랜잭션 커밋 후 SSE 이벤트 전송
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-            @Override
-            public void afterCommit() {
-                UserEntity user = userRepository.findById(userSeq).orElse(null);
-                if (user != null) {
-                    sseEmitterService.sendToClient(user.getUserId(), "unreadChat", "marked as read");
+    /**
+     * 채팅 메시지를 받아 ID 를 부여하고 저장 대기열(ChatMessageJournal)에 넣은 뒤, 바로 전송할 메시지를 돌려줍니다.
+     * DB 조회 없이 캐시된 참여자 정보만 사용하며, 저장과 안 읽은 수/알림 처리는 배치 저장 후에 이루어집니다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChatMessageDto acceptMessage(ChatMessageDto dto) {
+        if (dto.getMessageContent() == null || dto.getMessageContent().isBlank()) {
+            throw new IllegalArgumentException("메시지 내용이 없습니다.");
+        }
+        RoomMember sender = roomMembers(dto.getChatRoomId()).stream()
+                .filter(member -> member.userSeq().equals(dto.getSenderSeq()))
+                .findFirst()
+                .orElseThrow(() -> new SecurityException("해당 채팅방에 참여하고 있지 않습니다."));
+
+        ChatMessageJournal.Entry entry = chatMessageJournal.append(dto.getChatRoomId(), sender.userSeq(), dto.getMessageContent());
+
+        ChatMessageDto message = new ChatMessageDto();
+        message.setMessageId(entry.messageId());
+        message.setChatRoomId(entry.chatRoomId());
+        message.setSenderSeq(sender.userSeq());
+        message.setSenderName(sender.userName());
+        message.setMessageContent(entry.content());
+        message.setSentAt(entry.sentAt());
+        return message;
+    }
+
+    /**
+     * 메시지 배치가 저장된 뒤: 수신자의 안 읽은 수를 올리고, 수신자마다 한 번씩 SSE 로 알립니다.
+     */
+    private void onMessagesFlushed(List<ChatMessageJournal.Entry> entries) {
+        Set<String> receiverUserIds = new LinkedHashSet<>();
+        for (ChatMessageJournal.Entry entry : entries) {
+            for (RoomMember member : roomMembers(entry.chatRoomId())) {
+                if (!member.userSeq().equals(entry.senderSeq())) {
+                    unreadCounterService.chatMessageAdded(entry.chatRoomId(), member.userSeq());
+                    receiverUserIds.add(member.userId());
                 }
             }
-        });
+        }
+        receiverUserIds.forEach(userId -> sseEmitterService.sendToClient(userId, "unreadChat", "new message"));
     }
 
-    private ChatRoomDto toChatRoomDto(ChatRoom chatRoom, Integer currentUserSeq) {
-        UserEntity otherUser = chatRoom.getParticipants().stream()
-                .map(ChatParticipant::getUser)
-                .filter(user -> !user.getUserSeq().equals(currentUserSeq))
-                .findFirst()
-                .orElse(null);
-
-        ChatParticipant myParticipantInfo = chatRoom.getParticipants().stream()
-                .filter(p -> p.getUser().getUserSeq().equals(currentUserSeq))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("채팅방 참여 정보를 찾을 수 없습니다."));
+    /**
+     * 채팅방 참여자 (참여자는 방을 만들 때 정해지고 바뀌지 않으므로 캐시해 둡니다)
+     */
+    private List<RoomMember> roomMembers(Long chatRoomId) {
+        synchronized (roomMemberCache) {
+            List<RoomMember> cached = roomMemberCache.get(chatRoomId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<RoomMember> members = chatRoomRepository.findMembersByChatRoomId(chatRoomId).stream()
+                .map(row -> new RoomMember((Integer) row[0], (String) row[1], (String) row[2]))
+                .collect(Collectors.toList());
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("채팅방을 찾을 수 없습니다.");
+        }
+        synchronized (roomMemberCache) {
+            roomMemberCache.put(chatRoomId, members);
+        }
+        return members;
+    }
 
-        String myRole = myParticipantInfo.getRoleInChat();
-        String customName = myParticipantInfo.getCustomRoomName();
+    private record RoomMember(Integer userSeq, String userId, String userName) {
+    }
 
-        String roomName;
-        if (customName != null && !customName.isBlank()) {
-            roomName = customName;
-        } else {
-            String rolePrefix = "REQUESTER".equals(myRole) ? "[운송사]" : "[화주]";
-            roomName = String.format("%s %s '%s'", rolePrefix,
-                    otherUser != null ? otherUser.getCompanyName() : "알 수 없음",
-                    chatRoom.getOffer().getRequest().getCargo().getItemName());
-        }
+    // [✅ 추가] 메시지 읽음 처리 메서드
+    // 저장 대기를 트랜잭션 밖에서 하도록, 대기 후에 읽음 처리 트랜잭션을 시작합니다. (기다리는 동안 DB 커넥션을 잡지 않음)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void markMessagesAsRead(Long roomId, Integer userSeq) {
+        // 이 방에 방금 받은 메시지가 아직 저장 대기 중이면 저장된 뒤에 읽음 처리합니다. (읽은 메시지가 안 읽음으로 남지 않도록)
+        chatMessageJournal.awaitFlushed(roomId, READ_FLUSH_WAIT_MILLIS);
 
-        // [✅ 추가] 안 읽은 메시지 수 계산
-        long unreadCount = chatMessageRepository.countUnreadMessages(chatRoom.getChatRoomId(), currentUserSeq);
+        transactionTemplate.executeWithoutResult(status -> {
+            chatMessageRepository.markAsReadByRoomIdAndUserSeq(roomId, userSeq);
 
-        return ChatRoomDto.builder()
-                .chatRoomId(chatRoom.getChatRoomId())
-                .roomName(roomName)
-                .unreadCount((int) unreadCount)
-                .build();
+            // 트랜잭션 커밋 후 SSE 이벤트 전송
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    unreadCounterService.chatRoomRead(roomId, userSeq);
+                    UserEntity user = userRepository.findById(userSeq).orElse(null);
+                    if (user != null) {
+                        sseEmitterService.sendToClient(user.getUserId(), "unreadChat", "marked as read");
+                    }
+                }
+            });
+        });
     }
-    
+
     public void updateChatRoomName(Integer userSeq, Long chatRoomId, String newName) {
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new IllegalArgumentException("채팅방을 찾을 수 없습니다."));
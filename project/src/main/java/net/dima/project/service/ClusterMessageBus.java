@@ -0,0 +1,29 @@
+package net.dima.project.service;
+
+import net.dima.project.dto.ClusterMessage;
+
+import java.util.function.Consumer;
+
+/**
+ * 노드 간 실시간 메시지 전달 계층
+ * SSE 연결과 STOMP 구독은 각 노드의 메모리에만 있으므로, 사용자/토픽 대상 메시지를 모든 노드에 전달해
+ * 해당 연결을 가진 노드가 보내도록 합니다. 구현은 cluster.bus.type 으로 선택합니다.
+ * - local: 단일 서버용 (같은 JVM 에서 바로 전달, 기본값)
+ * - jdbc : 공용 DB 테이블(cluster_message)을 통해 다른 노드에 전달
+ */
+public interface ClusterMessageBus {
+
+    String CHANNEL_SSE_USER = "sse.user";   // target: userId
+    String CHANNEL_SSE_TOPIC = "sse.topic"; // target: SSE 구독 토픽
+    String CHANNEL_STOMP = "stomp";         // target: STOMP destination
+
+    /**
+     * 모든 노드(자기 자신 포함)의 해당 채널 처리기에 메시지를 전달합니다.
+     */
+    void publish(ClusterMessage message);
+
+    /**
+     * 이 노드에서 채널 메시지를 처리할 처리기를 등록합니다.
+     */
+    void subscribe(String channel, Consumer<ClusterMessage> handler);
+}
@@ -0,0 +1,125 @@
+package net.dima.project.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.entity.ContainerCapacityEntity;
+import net.dima.project.entity.ContainerEntity;
+import net.dima.project.entity.ContainerStatus;
+import net.dima.project.entity.OfferEntity;
+import net.dima.project.repository.ContainerCapacityRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 컨테이너 용량 장부(container_capacity)를 관리합니다.
+ * 제안 생성/취소, 낙찰, 재판매, 화물 이전, 외부화물 등록/삭제처럼 용량이 바뀌는 쓰기 작업의
+ * 같은 트랜잭션 안에서 해당 컨테이너의 장부만 다시 집계합니다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ContainerCapacityService {
+
+    private static final int RECALCULATE_CHUNK_SIZE = 500;
+
+    private final ContainerCapacityRepository containerCapacityRepository;
+
+    /**
+     * 새 컨테이너의 빈 장부를 만듭니다.
+     */
+    public void register(ContainerEntity container) {
+        containerCapacityRepository.save(ContainerCapacityEntity.builder()
+                .container(container)
+                .capacityCbm(container.getCapacityCbm())
+                .confirmedCbm(0.0)
+                .resaleCbm(0.0)
+                .biddingCbm(0.0)
+                .externalCbm(0.0)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    public void remove(ContainerEntity container) {
+        containerCapacityRepository.deleteById(container.getContainerId());
+    }
+
+    public void refresh(ContainerEntity... containers) {
+        refreshContainerIds(Arrays.stream(containers)
+                .map(ContainerEntity::getContainerId)
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     * 제안들이 실린 컨테이너의 장부를 갱신합니다. (낙찰/재판매처럼 여러 제안의 상태가 한꺼번에 바뀌는 경우)
+     */
+    public void refreshForOffers(Collection<OfferEntity> offers) {
+        refreshContainerIds(offers.stream()
+                .map(offer -> offer.getContainer().getContainerId())
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     * 컨테이너에 필요한 용량을 확보합니다. (입찰 제출, 낙찰 확정, 외부화물 등록, 화물 이전)
+     * 장부 행을 다시 집계하면서 잠근 뒤 잔여 용량을 조건부 UPDATE 로 검사하므로,
+     * 같은 컨테이너를 노리는 동시 요청이 함께 통과해 용량을 초과하는 일이 없습니다.
+     * 실제 용량 반영(입찰중 → 확정, 거절/마감 시 해제)은 각 쓰기 작업 뒤의 refresh 에서 이루어집니다.
+     *
+     * @param requiredCbm 새로 필요한 용량
+     * @param heldCbm     이 건으로 이미 장부에 잡혀 있는 용량 (예: 마감 전 입찰이 낙찰로 전환되는 경우)
+     */
+    public void reserve(ContainerEntity container, double requiredCbm, double heldCbm) {
+        String containerId = container.getContainerId();
+        LocalDateTime now = LocalDateTime.now();
+        containerCapacityRepository.recalculate(Set.of(containerId), now);
+
+        if (containerCapacityRepository.tryAllocate(containerId, requiredCbm, heldCbm, now) == 0) {
+            Double availableCbm = containerCapacityRepository.findAvailableCbm(containerId);
+            throw new IllegalStateException(String.format("컨테이너(%s)의 잔여 용량이 부족합니다. (잔여: %.2f CBM, 필요: %.2f CBM)",
+                    containerId, availableCbm == null ? 0.0 : availableCbm + heldCbm, requiredCbm));
+        }
+    }
+
+    private void refreshContainerIds(Set<String> containerIds) {
+        if (!containerIds.isEmpty()) {
+            containerCapacityRepository.recalculate(containerIds, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 입찰 마감 시간이 지나면 입찰중 용량이 풀려야 하므로, 입찰중 용량이 있는 컨테이너만 주기적으로 다시 집계합니다.
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public void releaseExpiredBids() {
+        recalculateInChunks(containerCapacityRepository.findContainerIdsWithBidding());
+    }
+
+    /**
+     * 애플리케이션 시작 시 장부가 없는 컨테이너를 채우고, 정산 전 컨테이너 장부를 전부 다시 집계합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileAll() {
+        int inserted = containerCapacityRepository.insertMissing(LocalDateTime.now());
+        List<String> containerIds = containerCapacityRepository.findContainerIdsByStatusNot(ContainerStatus.SETTLED);
+        recalculateInChunks(containerIds);
+        log.info("컨테이너 용량 장부 보정 완료: 신규 {}건, 재집계 {}건", inserted, containerIds.size());
+    }
+
+    private void recalculateInChunks(List<String> containerIds) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < containerIds.size(); from += RECALCULATE_CHUNK_SIZE) {
+            List<String> chunk = containerIds.subList(from, Math.min(from + RECALCULATE_CHUNK_SIZE, containerIds.size()));
+            containerCapacityRepository.recalculate(chunk, now);
+        }
+    }
+}
@@ -19,7 +19,6 @@ import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -41,6 +40,11 @@ public class ContainerService {
     private final RequestRepository requestRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final ChatService chatService;
+    private final ResaleChainService resaleChainService;
+    private final ContainerCapacityRepository containerCapacityRepository;
+    private final ContainerCapacityService containerCapacityService;
+    private final DashboardCounterService dashboardCounterService;
+    private final SettlementLedgerService settlementLedgerService;
 
     public List<ContainerStatusDto> getContainerStatuses(String currentUserId, Sort sort) {
         if (sort == null) {
@@ -48,50 +52,19 @@ public class ContainerService {
         }
     	
         UserEntity forwarder = userRepository.findByUserId(currentUserId);
-        
-        final String sortBy = sort.get().findFirst().map(Sort.Order::getProperty).orElse("containerId");
-        final Sort.Direction direction = sort.get().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
-        final LocalDateTime now = LocalDateTime.now();
-
-        Sort dbSort = sortBy.equals("availableCbm") ? Sort.by("containerId").ascending() : sort;
-        List<ContainerEntity> myContainers = containerRepository.findByForwarderAndStatusNot(forwarder, ContainerStatus.SETTLED, dbSort);
-
-        if (myContainers.isEmpty()) {
-            return new ArrayList<>();
-        }
 
-        List<String> myContainerIds = myContainers.stream().map(ContainerEntity::getContainerId).collect(Collectors.toList());
-        
-        List<OfferEntity> allOffers = offerRepository.findAllByContainer_ContainerIdIn(myContainerIds);
-        Map<String, List<OfferEntity>> offersByContainerId = allOffers.stream()
-                .collect(Collectors.groupingBy(offer -> offer.getContainer().getContainerId()));
-
-        List<ContainerCargoEntity> allExternalCargos = containerCargoRepository.findExternalCargosByContainerIds(myContainerIds, true);
-        Map<String, List<ContainerCargoEntity>> externalCargosByContainerId = allExternalCargos.stream()
-                .collect(Collectors.groupingBy(cargo -> cargo.getContainer().getContainerId()));
+        // 용량 장부와 컨테이너를 한 번에 조회합니다. (잔여 용량 정렬도 장부 컬럼으로 DB에서 처리)
+        List<ContainerCapacityEntity> capacities = containerCapacityRepository.findWithContainerByForwarder(
+                forwarder, ContainerStatus.SETTLED, toCapacitySort(sort));
 
-        List<ContainerStatusDto> dtos = myContainers.stream().map(container -> {
+        return capacities.stream().map(capacity -> {
+            ContainerEntity container = capacity.getContainer();
             ContainerStatusDto dto = ContainerStatusDto.fromEntity(container);
-            List<OfferEntity> offers = offersByContainerId.getOrDefault(container.getContainerId(), new ArrayList<>());
-            
-            double confirmedCbmFromOffers = offers.stream()
-                    .filter(o -> o.getStatus() == OfferStatus.ACCEPTED || o.getStatus() == OfferStatus.CONFIRMED || o.getStatus() == OfferStatus.SHIPPED || o.getStatus() == OfferStatus.COMPLETED)
-                    .mapToDouble(o -> o.getRequest().getCargo().getTotalCbm())
-                    .sum();
-            
-            double resaleCbm = offers.stream().filter(o -> o.getStatus() == OfferStatus.FOR_SALE).mapToDouble(o -> o.getRequest().getCargo().getTotalCbm()).sum();
-            double biddingCbm = offers.stream()
-                    .filter(o -> o.getStatus() == OfferStatus.PENDING && o.getRequest().getDeadline().isAfter(now))
-                    .mapToDouble(o -> o.getRequest().getCargo().getTotalCbm())
-                    .sum();
-            
-            List<ContainerCargoEntity> externalCargos = externalCargosByContainerId.getOrDefault(container.getContainerId(), new ArrayList<>());
-            double externalCbm = externalCargos.stream().mapToDouble(ContainerCargoEntity::getCbmLoaded).sum();
 
-            dto.setConfirmedCbm(confirmedCbmFromOffers + externalCbm);
-            dto.setResaleCbm(resaleCbm);
-            dto.setBiddingCbm(biddingCbm);
-            dto.setAvailableCbm(dto.getTotalCapacity() - dto.getConfirmedCbm() - dto.getResaleCbm() - dto.getBiddingCbm());
+            dto.setConfirmedCbm(capacity.getConfirmedCbm() + capacity.getExternalCbm());
+            dto.setResaleCbm(capacity.getResaleCbm());
+            dto.setBiddingCbm(capacity.getBiddingCbm());
+            dto.setAvailableCbm(capacity.getAvailableCbm());
             
             boolean isEmpty = (dto.getConfirmedCbm() + dto.getResaleCbm() + dto.getBiddingCbm()) == 0;
             boolean canConfirm = (dto.getResaleCbm() == 0 && dto.getBiddingCbm() == 0 && dto.getConfirmedCbm() > 0);
@@ -102,52 +75,40 @@ public class ContainerService {
             
             return dto;
         }).collect(Collectors.toList());
+    }
 
-        if (sortBy.equals("availableCbm")) {
-            Comparator<ContainerStatusDto> comparator = Comparator.comparing(ContainerStatusDto::getAvailableCbm);
-            if (direction == Sort.Direction.DESC) {
-                comparator = comparator.reversed();
-            }
-            dtos.sort(comparator);
-        }
-
-        return dtos;
+    /**
+     * 화면의 정렬 기준(컨테이너 필드 또는 availableCbm)을 용량 장부 기준 경로로 바꿉니다.
+     */
+    private Sort toCapacitySort(Sort sort) {
+        List<Sort.Order> orders = sort.stream()
+                .map(order -> {
+                    String property = order.getProperty();
+                    if (!property.equals("containerId") && !property.equals("availableCbm")) {
+                        property = "container." + property;
+                    }
+                    return new Sort.Order(order.getDirection(), property);
+                })
+                .collect(Collectors.toList());
+        return Sort.by(orders);
     }
 
     public List<AvailableContainerDto> getAvailableContainers(Long requestId, String currentUserId) {
-        log.info("--------- [ContainerService] getAvailableContainers START ---------");
-        log.info("요청 ID: {}, 현재 사용자 ID: {}", requestId, currentUserId);
-
         RequestEntity request = requestRepository.findRequestWithDetailsById(requestId)
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 요청입니다: " + requestId));
-        log.info(">> 조회된 요청 정보: 경로({} -> {}), CBM({})", request.getDeparturePort(), request.getArrivalPort(), request.getCargo().getTotalCbm());
 
         UserEntity forwarder = Optional.ofNullable(userRepository.findByUserId(currentUserId))
                 .orElseThrow(() -> new UsernameNotFoundException("사용자를 찾을 수 없습니다: " + currentUserId));
-        log.info(">> 조회된 포워더 정보: {}", forwarder.getUserId());
-
-        List<ContainerEntity> allMyContainers = containerRepository.findByForwarder(forwarder, Sort.by("containerId").ascending());
-
-        log.info(">> '{}' 사용자의 전체 컨테이너 수: {}개", currentUserId, allMyContainers.size());
 
-        allMyContainers.forEach(c -> 
-            log.info("   - 보유 컨테이너: {}, 경로({} -> {})", c.getContainerId(), c.getDeparturePort(), c.getArrivalPort())
-        );
-        log.info(">> 경로 필터링 시작...");
+        List<ContainerCapacityEntity> capacities = containerCapacityRepository.findWithContainerByRoute(
+                forwarder, ContainerStatus.SCHEDULED, request.getDeparturePort(), request.getArrivalPort());
+        log.info("[getAvailableContainers] 요청 ID: {}, 사용자: {}, 경로 일치 컨테이너: {}개", requestId, currentUserId, capacities.size());
 
-        List<AvailableContainerDto> result = allMyContainers.stream()
-                .filter(container -> {
-                	 boolean isScheduled = container.getStatus() == ContainerStatus.SCHEDULED;
-                     boolean departureMatch = container.getDeparturePort().trim().equalsIgnoreCase(request.getDeparturePort().trim());
-                     boolean arrivalMatch = container.getArrivalPort().trim().equalsIgnoreCase(request.getArrivalPort().trim());
-                     log.info("   - 필터링 검사: 컨테이너({}), 상태일치={}, 출발지 일치={}, 도착지 일치={}", 
-                             container.getContainerId(), isScheduled, departureMatch, arrivalMatch);
-                    
-                    return isScheduled && departureMatch && arrivalMatch;
-                })
-                .map(container -> {
-                    Double loadedCbm = Optional.ofNullable(containerCargoRepository.sumCbmByContainerId(container.getContainerId())).orElse(0.0);
-                    double availableCbm = container.getCapacityCbm() - loadedCbm;
+        return capacities.stream()
+                .map(capacity -> {
+                    ContainerEntity container = capacity.getContainer();
+                    // 입찰 제출 시 용량을 확보하므로(ContainerCapacityService.reserve), 다른 입찰중 용량까지 뺀 잔여 용량을 보여줍니다.
+                    double availableCbm = capacity.getAvailableCbm();
                     
                     return AvailableContainerDto.builder()
                             .containerId(container.getContainerId())
@@ -158,9 +119,6 @@ public class ContainerService {
                             .build();
                 })
                 .collect(Collectors.toList());
-        log.info(">> 필터링 후 최종 결과 컨테이너 수: {}개", result.size());
-        log.info("--------- [ContainerService] getAvailableContainers END ---------");
-        return result;
     }
     
     @Transactional
@@ -173,15 +131,7 @@ public class ContainerService {
             throw new SecurityException("자신의 컨테이너에만 서류를 등록할 수 있습니다.");
         }
 
-        double loadedCbm = containerCargoRepository.findByContainer_ContainerId(container.getContainerId())
-                .stream()
-                .mapToDouble(ContainerCargoEntity::getCbmLoaded)
-                .sum();
-        double availableCbm = container.getCapacityCbm() - loadedCbm;
-
-        if (dto.getCbm() > availableCbm) {
-            throw new IllegalArgumentException("컨테이너의 잔여 용량이 부족합니다. (잔여: " + String.format("%.2f", availableCbm) + " CBM)");
-        }
+        containerCapacityService.reserve(container, dto.getCbm(), 0);
 
         ContainerCargoEntity externalCargo = ContainerCargoEntity.builder()
                 .container(container)
@@ -194,6 +144,7 @@ public class ContainerService {
                 .build();
         
         containerCargoRepository.save(externalCargo);
+        containerCapacityService.refresh(container);
     }
     
     @Transactional
@@ -208,6 +159,7 @@ public class ContainerService {
             throw new SecurityException("삭제 권한이 없습니다.");
         }
         containerCargoRepository.delete(cargo);
+        containerCapacityService.refresh(cargo.getContainer());
     }
 
     public List<CargoDetailDto> getDetailsForContainerStatus(String containerId, String statusString, String currentUserId) {
@@ -295,7 +247,7 @@ public class ContainerService {
                 .status(ContainerStatus.SCHEDULED)
                 .build();
 
-        containerRepository.save(newContainer);
+        containerCapacityService.register(containerRepository.save(newContainer));
     }
     
     @Transactional
@@ -309,10 +261,15 @@ public class ContainerService {
         List<OfferEntity> associatedOffers = offerRepository.findAllByContainer(container);
         List<ContainerCargoEntity> associatedCargos = containerCargoRepository.findAllByContainer(container);
 
+        List<RequestEntity> detachedRequests = new ArrayList<>();
         for (OfferEntity offer : associatedOffers) {
             requestRepository.findBySourceOffer(offer)
-                .ifPresent(request -> request.setSourceOffer(null));
+                .ifPresent(request -> {
+                    request.setSourceOffer(null);
+                    detachedRequests.add(request);
+                });
         }
+        resaleChainService.onOffersDeleted(associatedOffers, detachedRequests);
         
         if (!associatedOffers.isEmpty()) {
             offerRepository.deleteAll(associatedOffers);
@@ -321,6 +278,7 @@ public class ContainerService {
             containerCargoRepository.deleteAll(associatedCargos);
         }
 
+        containerCapacityService.remove(container);
         containerRepository.delete(container);
     }
     
@@ -345,11 +303,12 @@ public class ContainerService {
 
         for (OfferEntity offer : offers) {
             if (offer.getStatus() == OfferStatus.ACCEPTED) {
+                dashboardCounterService.offerStatusChanged(offer, OfferStatus.ACCEPTED, OfferStatus.CONFIRMED);
                 offer.setStatus(OfferStatus.CONFIRMED);
             }
         }
         
-        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container, "컨테이너가 확정되었습니다."));
+        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container.getContainerId(), container.getStatus(), "컨테이너가 확정되었습니다."));
     }
     
     @Transactional
@@ -367,7 +326,7 @@ public class ContainerService {
             }
         }
         
-        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container, "선적이 완료되었습니다."));
+        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container.getContainerId(), container.getStatus(), "선적이 완료되었습니다."));
     }
 
     @Transactional
@@ -384,7 +343,7 @@ public class ContainerService {
                 offer.setStatus(OfferStatus.COMPLETED);
             }
         }
-        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container, "운송이 완료되었습니다."));
+        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container.getContainerId(), container.getStatus(), "운송이 완료되었습니다."));
     }
 
     private ContainerEntity findAndValidateContainer(String containerId, String currentUserId) {
@@ -403,9 +362,28 @@ public class ContainerService {
             throw new IllegalStateException("'운송완료' 상태의 컨테이너만 정산할 수 있습니다.");
         }
         container.setStatus(ContainerStatus.SETTLED);
-        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container, "정산이 완료되었습니다."));
+        markChainsSettled(container);
+        settlementLedgerService.recordSettlement(container);
+        eventPublisher.publishEvent(new NotificationEvents.ContainerStatusChangedEvent(this, container.getContainerId(), container.getStatus(), "정산이 완료되었습니다."));
         chatService.closeChatRoomsForSettledContainer(container);
     }
+
+    /**
+     * 컨테이너에 실린 화물의 재판매 체인을 따라 올라가며 모든 요청에 정산완료 시각을 기록합니다.
+     * (화주/재판매 목록이 정산완료 건을 DB 조건만으로 제외할 수 있도록 함)
+     */
+    private void markChainsSettled(ContainerEntity container) {
+        LocalDateTime settledAt = LocalDateTime.now();
+        containerCargoRepository.findAllByContainer(container).stream()
+            .filter(cargo -> !cargo.getIsExternal() && cargo.getOffer() != null)
+            .forEach(cargo -> {
+                RequestEntity request = cargo.getOffer().getRequest();
+                while (request != null) {
+                    request.setSettledAt(settledAt);
+                    request = (request.getSourceOffer() != null) ? request.getSourceOffer().getRequest() : null;
+                }
+            });
+    }
     
  // ContainerService.java
 
@@ -441,22 +419,16 @@ public class ContainerService {
             throw new IllegalArgumentException("경로가 동일한 컨테이너로만 옮길 수 있습니다.");
         }
 
-        double requiredCbm = offerToMove.getRequest().getCargo().getTotalCbm();
-        double availableCbmInToContainer = getContainerStatuses(currentUserId, null).stream()
-            .filter(c -> c.getContainerId().equals(toContainerId))
-            .findFirst()
-            .map(ContainerStatusDto::getAvailableCbm)
-            .orElse(0.0);
-
-        if (availableCbmInToContainer < requiredCbm) {
-            throw new IllegalArgumentException("대상 컨테이너의 잔여 용량이 부족합니다.");
-        }
-        
         // [✅ 핵심 추가] ETA(도착 예정일)가 기존보다 늦어지는지 확인
         if (toContainer.getEta().isAfter(fromContainer.getEta())) {
             throw new IllegalArgumentException("기존보다 도착일이 늦어지는 컨테이너로는 이동할 수 없습니다.");
         }
 
+        // 두 컨테이너 장부를 한 문장으로(기본키 순서대로) 잠근 뒤 대상 컨테이너의 용량을 확보합니다.
+        // (반대 방향 이전이 동시에 일어나도 잠금 순서가 같아 교착 상태가 생기지 않음)
+        containerCapacityService.refresh(fromContainer, toContainer);
+        containerCapacityService.reserve(toContainer, offerToMove.getRequest().getCargo().getTotalCbm(), 0);
+
         // 3. 데이터베이스 업데이트
         offerToMove.setContainer(toContainer);
         offerRepository.save(offerToMove); // 변경 사항 저장
@@ -465,5 +437,6 @@ public class ContainerService {
             cargo.setContainer(toContainer);
             containerCargoRepository.save(cargo); // 변경 사항 저장
         });
+        containerCapacityService.refresh(fromContainer, toContainer);
     }
 }
\ No newline at end of file
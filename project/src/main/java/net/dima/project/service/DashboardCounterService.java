@@ -0,0 +1,240 @@
+package net.dima.project.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.dto.DashboardMetricsDto;
+import net.dima.project.entity.OfferEntity;
+import net.dima.project.entity.OfferStatus;
+import net.dima.project.entity.ScfiData;
+import net.dima.project.repository.OfferRepository;
+import net.dima.project.repository.RequestRepository;
+import net.dima.project.repository.ScfiDataRepository;
+import net.dima.project.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 관리자 대시보드 카운터 저장소
+ * 오늘 요청/거래 수와 역할별 사용자 수는 요청·제안·회원 쓰기 작업이 커밋될 때 증감하고,
+ * 시간이 지나며 바뀌는 수치(입찰 없는 마감 임박 요청, 미확정 비율)와 SCFI 는 주기적으로 계산해 둡니다.
+ * 대시보드 조회는 저장된 값만 읽으며, 주기적인 재집계로 누락/중복된 증감(컨테이너 삭제, 다중 서버 등)을 바로잡습니다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCounterService {
+
+    private static final String ROLE_FWD = "ROLE_fwd";
+    private static final String ROLE_CUS = "ROLE_cus";
+    private static final String ROLE_PENDING = "ROLE_PENDING";
+
+    private final RequestRepository requestRepository;
+    private final OfferRepository offerRepository;
+    private final UserRepository userRepository;
+    private final ScfiDataRepository scfiDataRepository;
+
+    // 증감 카운터 (오늘 기준 값은 counterDate 가 바뀌면 0 부터 다시 셉니다)
+    private volatile LocalDate counterDate = LocalDate.now();
+    private final AtomicLong todayRequests = new AtomicLong();
+    private final AtomicLong todayDeals = new AtomicLong();
+    private final AtomicLong fwdUsers = new AtomicLong();
+    private final AtomicLong cusUsers = new AtomicLong();
+    private final AtomicLong pendingUsers = new AtomicLong();
+
+    // 주기적으로 계산하는 값
+    private volatile long noBidRequests;
+    private volatile double missedConfirmationRate;
+    private volatile Double scfiChangePercentage;
+    private volatile String scfiStatus = "NORMAL";
+    private volatile boolean initialized;
+
+    /**
+     * 저장된 값으로 대시보드 수치를 만듭니다. (DB 조회 없음)
+     */
+    public DashboardMetricsDto snapshot() {
+        if (!initialized) {
+            reconcile();
+        }
+        rollOverIfNeeded();
+        return DashboardMetricsDto.builder()
+                .todayRequests(todayRequests.get())
+                .todayDeals(todayDeals.get())
+                .totalFwdUsers(fwdUsers.get())
+                .totalCusUsers(cusUsers.get())
+                .pendingUsers(pendingUsers.get())
+                .noBidRequests(noBidRequests)
+                .scfiChangePercentage(scfiChangePercentage)
+                .scfiStatus(scfiStatus)
+                .missedConfirmationRate(missedConfirmationRate)
+                .build();
+    }
+
+    // ===== 쓰기 작업에서 호출 (커밋 후 반영) =====
+
+    public void requestCreated() {
+        afterCommit(() -> {
+            rollOverIfNeeded();
+            todayRequests.incrementAndGet();
+        });
+    }
+
+    /**
+     * 오늘 생성된 제안이 ACCEPTED 상태로 들어가거나 나갈 때 오늘 거래 수를 증감합니다.
+     */
+    public void offerStatusChanged(OfferEntity offer, OfferStatus from, OfferStatus to) {
+        if (from == to || (from != OfferStatus.ACCEPTED && to != OfferStatus.ACCEPTED)) {
+            return;
+        }
+        LocalDateTime createdAt = offer.getCreatedAt();
+        if (createdAt == null || !createdAt.toLocalDate().equals(LocalDate.now())) {
+            return;
+        }
+        long delta = (to == OfferStatus.ACCEPTED) ? 1 : -1;
+        afterCommit(() -> {
+            rollOverIfNeeded();
+            todayDeals.addAndGet(delta);
+        });
+    }
+
+    public void userRegistered(String role) {
+        userRoleChanged(null, role);
+    }
+
+    public void userRoleChanged(String fromRole, String toRole) {
+        if (fromRole != null && fromRole.equals(toRole)) {
+            return;
+        }
+        afterCommit(() -> {
+            adjustRole(fromRole, -1);
+            adjustRole(toRole, 1);
+        });
+    }
+
+    public void scfiDataChanged() {
+        afterCommit(this::refreshScfi);
+    }
+
+    // ===== 재집계 =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * 증감 카운터를 DB 값으로 다시 맞춥니다.
+     */
+    @Scheduled(cron = "${dashboard.counters.reconcile-cron:0 */10 * * * *}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime startOfDay = today.atStartOfDay();
+        LocalDateTime endOfDay = today.atTime(LocalTime.MAX);
+
+        Map<String, Long> usersByRole = userRepository.countGroupByRoles().stream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+
+        counterDate = today;
+        todayRequests.set(requestRepository.countByCreatedAtBetween(startOfDay, endOfDay));
+        todayDeals.set(offerRepository.countByStatusAndCreatedAtBetween(OfferStatus.ACCEPTED, startOfDay, endOfDay));
+        fwdUsers.set(usersByRole.getOrDefault(ROLE_FWD, 0L));
+        cusUsers.set(usersByRole.getOrDefault(ROLE_CUS, 0L));
+        pendingUsers.set(usersByRole.getOrDefault(ROLE_PENDING, 0L));
+
+        refreshTimeBasedMetrics();
+        refreshScfi();
+        initialized = true;
+    }
+
+    /**
+     * 시간이 지나면 바뀌는 수치를 다시 계산합니다.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.counters.time-based-refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refreshTimeBasedMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+        noBidRequests = requestRepository.countOpenRequestsWithNoBids(now.plusDays(1)); // 마감 1일 전
+
+        long missedConfirmations = requestRepository.countOpenRequestsWithBidsPastDeadline(now);
+        long totalClosedOrExpired = requestRepository.countTotalClosedOrExpiredRequests(now);
+        missedConfirmationRate = (totalClosedOrExpired == 0) ? 0.0 :
+                ((double) missedConfirmations / totalClosedOrExpired) * 100;
+    }
+
+    private void refreshScfi() {
+        List<ScfiData> latestTwoScfi = scfiDataRepository.findTop2ByOrderByRecordDateDesc();
+        Double changePercentage = null;
+        String status = "NORMAL";
+
+        if (latestTwoScfi.size() == 2) {
+            BigDecimal latest = latestTwoScfi.get(0).getIndexValue();
+            BigDecimal previous = latestTwoScfi.get(1).getIndexValue();
+
+            if (previous.compareTo(BigDecimal.ZERO) != 0) {
+                BigDecimal change = latest.subtract(previous);
+                BigDecimal percentage = change.divide(previous, 4, RoundingMode.HALF_UP)
+                                              .multiply(new BigDecimal("100"));
+                changePercentage = percentage.doubleValue();
+
+                if (changePercentage >= 5.0) {
+                    status = "GREEN";
+                } else if (changePercentage <= -5.0) {
+                    status = "RED";
+                }
+            }
+        }
+        scfiChangePercentage = changePercentage;
+        scfiStatus = status;
+    }
+
+    private void rollOverIfNeeded() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(counterDate)) {
+            synchronized (this) {
+                if (!today.equals(counterDate)) {
+                    todayRequests.set(0);
+                    todayDeals.set(0);
+                    counterDate = today;
+                }
+            }
+        }
+    }
+
+    private void adjustRole(String role, long delta) {
+        if (ROLE_FWD.equals(role)) {
+            fwdUsers.addAndGet(delta);
+        } else if (ROLE_CUS.equals(role)) {
+            cusUsers.addAndGet(delta);
+        } else if (ROLE_PENDING.equals(role)) {
+            pendingUsers.addAndGet(delta);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
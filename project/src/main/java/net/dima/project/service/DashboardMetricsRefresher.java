@@ -0,0 +1,85 @@
+package net.dima.project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.dto.DashboardMetricsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 관리자 대시보드 수치 갱신기
+ * 요청 등록/낙찰/가입 등으로 수치가 바뀔 때마다 바로 다시 계산하지 않고, 설정된 시간(window) 동안 들어온
+ * 갱신 요청을 모아 한 번만 계산합니다. 계산 결과는 캐시해 조회 API 에서도 재사용하고,
+ * 이전 값과 달라졌을 때만 관리자에게 SSE 로 보냅니다.
+ */
+@Service
+@Slf4j
+public class DashboardMetricsRefresher {
+
+    private final AdminService adminService;
+    private final SseEmitterService sseEmitterService;
+    private final TaskScheduler taskScheduler;
+    private final Duration window;
+    private final Duration maxAge;
+
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private volatile DashboardMetricsDto cachedMetrics;
+    private volatile Instant computedAt = Instant.EPOCH;
+
+    public DashboardMetricsRefresher(AdminService adminService,
+                                     SseEmitterService sseEmitterService,
+                                     TaskScheduler taskScheduler,
+                                     @Value("${dashboard.refresh.window-ms:2000}") long windowMillis,
+                                     @Value("${dashboard.cache.max-age-seconds:30}") long maxAgeSeconds) {
+        this.adminService = adminService;
+        this.sseEmitterService = sseEmitterService;
+        this.taskScheduler = taskScheduler;
+        this.window = Duration.ofMillis(windowMillis);
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+    }
+
+    /**
+     * 갱신을 요청합니다. 이미 예약된 갱신이 있으면 그 갱신에 합쳐집니다.
+     */
+    public void requestRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::refresh, Instant.now().plus(window));
+        }
+    }
+
+    /**
+     * 캐시된 수치를 돌려줍니다. 캐시가 없거나 오래되었으면(날짜/마감 시각이 지나 바뀌는 수치 때문) 다시 계산합니다.
+     */
+    public DashboardMetricsDto getMetrics() {
+        DashboardMetricsDto metrics = cachedMetrics;
+        if (metrics == null || computedAt.plus(maxAge).isBefore(Instant.now())) {
+            metrics = compute();
+        }
+        return metrics;
+    }
+
+    private void refresh() {
+        // 계산 중에 들어온 요청은 다음 갱신으로 예약되도록 먼저 해제합니다.
+        refreshScheduled.set(false);
+        try {
+            DashboardMetricsDto previous = cachedMetrics;
+            DashboardMetricsDto latest = compute();
+            if (!latest.equals(previous)) {
+                sseEmitterService.broadcast(SseEmitterService.TOPIC_ADMINS, "dashboard_update", latest);
+            }
+        } catch (RuntimeException e) {
+            log.error("대시보드 수치 갱신 실패", e);
+        }
+    }
+
+    private DashboardMetricsDto compute() {
+        DashboardMetricsDto metrics = adminService.getDashboardMetrics();
+        cachedMetrics = metrics;
+        computedAt = Instant.now();
+        return metrics;
+    }
+}
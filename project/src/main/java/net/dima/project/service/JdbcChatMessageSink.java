@@ -0,0 +1,86 @@
+package net.dima.project.service;
+
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 채팅 메시지 배치를 JDBC 배치 INSERT 로 저장하고, 방마다 마지막 메시지 정보를 갱신합니다.
+ * ID 충돌은 조용히 넘기지 않도록 일반 INSERT 를 쓰며, 저장 건수가 맞지 않으면 예외를 던져 트랜잭션을 되돌립니다.
+ */
+@Component
+class JdbcChatMessageSink implements ChatMessageSink {
+
+    private static final int PREVIEW_LENGTH = 100; // chat_room.last_message_preview 길이
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_message (message_id, chat_room_id, sender_seq, message_content, sent_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_LAST_MESSAGE_SQL =
+            "UPDATE chat_room SET last_message_at = ?, last_message_preview = ? " +
+            "WHERE chat_room_id = ? AND (last_message_at IS NULL OR last_message_at <= ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    JdbcChatMessageSink(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void write(List<ChatMessageJournal.Entry> batch) {
+        // 방마다 가장 늦은 메시지로 마지막 메시지 정보를 한 번만 갱신합니다.
+        Map<Long, ChatMessageJournal.Entry> lastByRoom = new LinkedHashMap<>();
+        for (ChatMessageJournal.Entry entry : batch) {
+            lastByRoom.merge(entry.chatRoomId(), entry, (a, b) -> b.messageId() > a.messageId() ? b : a);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                ps.setLong(1, entry.messageId());
+                ps.setLong(2, entry.chatRoomId());
+                ps.setInt(3, entry.senderSeq());
+                ps.setString(4, entry.content());
+                ps.setTimestamp(5, Timestamp.valueOf(entry.sentAt()));
+            });
+            checkInserted(counts);
+
+            List<ChatMessageJournal.Entry> lastMessages = new ArrayList<>(lastByRoom.values());
+            jdbcTemplate.batchUpdate(UPDATE_LAST_MESSAGE_SQL, lastMessages, lastMessages.size(), (ps, entry) -> {
+                Timestamp sentAt = Timestamp.valueOf(entry.sentAt());
+                ps.setTimestamp(1, sentAt);
+                ps.setString(2, preview(entry.content()));
+                ps.setLong(3, entry.chatRoomId());
+                ps.setTimestamp(4, sentAt);
+            });
+        });
+    }
+
+    /**
+     * 모든 행이 1건씩 저장되었는지 확인합니다.
+     * (rewriteBatchedStatements 로 묶여 실행되면 드라이버가 건수 대신 SUCCESS_NO_INFO 를 돌려줄 수 있음)
+     */
+    private void checkInserted(int[][] counts) {
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count != 1 && count != Statement.SUCCESS_NO_INFO) {
+                    throw new JdbcUpdateAffectedIncorrectNumberOfRowsException(INSERT_SQL, 1, count);
+                }
+            }
+        }
+    }
+
+    private String preview(String content) {
+        return content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH - 1) + "…" : content;
+    }
+}
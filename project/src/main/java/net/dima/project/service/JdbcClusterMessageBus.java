@@ -0,0 +1,148 @@
+package net.dima.project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.dto.ClusterMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DB 기반 메시지 버스 (여러 노드 운영용)
+ * 발행한 노드는 자기 처리기에 바로 전달하고, 다른 노드를 위해 cluster_message 테이블에 한 행을 남깁니다.
+ * 각 노드는 짧은 주기로 마지막으로 읽은 id 이후의 행을 읽어 다른 노드가 발행한 메시지만 처리합니다.
+ * 행은 실시간 전달용이므로 보관 기간(cluster.bus.retention-minutes)이 지나면 삭제합니다.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.bus.type", havingValue = "jdbc")
+@Slf4j
+public class JdbcClusterMessageBus extends AbstractClusterMessageBus {
+
+    private static final int POLL_LIMIT = 500;
+    private static final int MAX_TRACKED_GAP = 100;     // 한 번에 추적할 최대 id 공백 (그 이상은 롤백 등으로 보고 무시)
+    private static final long GAP_WAIT_MILLIS = 5_000;  // 늦게 커밋된 행을 기다리는 시간
+
+    private static final String INSERT_SQL =
+            "INSERT INTO cluster_message (origin_node, channel, target, event_name, payload, event_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_COLUMNS =
+            "SELECT message_id, origin_node, channel, target, event_name, payload, event_id FROM cluster_message ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final int retentionMinutes;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private long lastSeenId;
+    // 자동 증가 id 는 커밋 순서와 다를 수 있어, 건너뛴 id 는 잠시 동안 다시 확인합니다. (key: id, value: 포기 시각)
+    private final Map<Long, Long> pendingGaps = new LinkedHashMap<>();
+
+    public JdbcClusterMessageBus(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${cluster.bus.retention-minutes:5}") int retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retentionMinutes = retentionMinutes;
+        // 시작 이전의 메시지는 이미 지난 실시간 이벤트이므로 읽지 않습니다.
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(message_id), 0) FROM cluster_message", Long.class);
+        this.lastSeenId = maxId != null ? maxId : 0L;
+        log.info("Cluster: JDBC message bus started (node {}, from id {})", nodeId, lastSeenId);
+    }
+
+    /**
+     * 이 노드에는 바로 전달하고, 다른 노드용 행은 별도 트랜잭션으로 저장합니다.
+     * (커밋 후 콜백이나 발송 트랜잭션 안에서 호출되어도 즉시 다른 노드에 보이도록)
+     */
+    @Override
+    public void publish(ClusterMessage message) {
+        deliverLocally(message);
+        try {
+            requiresNew.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL,
+                    nodeId, message.getChannel(), message.getTarget(), message.getEventName(), message.getPayload(), message.getEventId(),
+                    Timestamp.valueOf(LocalDateTime.now())));
+        } catch (RuntimeException e) {
+            log.error("Cluster: Failed to publish message to other nodes (channel {}, target {})",
+                    message.getChannel(), message.getTarget(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.bus.poll-interval-ms:500}")
+    public synchronized void poll() {
+        List<Row> rows = new ArrayList<>(jdbcTemplate.query(
+                SELECT_COLUMNS + "WHERE message_id > ? ORDER BY message_id LIMIT " + POLL_LIMIT, ROW_MAPPER, lastSeenId));
+        rows.addAll(pollGaps());
+        rows.sort(Comparator.comparingLong(Row::id));
+
+        for (Row row : rows) {
+            if (row.id() > lastSeenId) {
+                trackGap(row.id());
+                lastSeenId = row.id();
+            } else {
+                pendingGaps.remove(row.id());
+            }
+            if (!nodeId.equals(row.originNode())) {
+                deliverLocally(row.message());
+            }
+        }
+    }
+
+    @Scheduled(fixedRate = 60_000)
+    public void purge() {
+        int deleted = jdbcTemplate.update("DELETE FROM cluster_message WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(retentionMinutes)));
+        if (deleted > 0) {
+            log.debug("Cluster: Purged {} old messages", deleted);
+        }
+    }
+
+    private List<Row> pollGaps() {
+        long now = System.currentTimeMillis();
+        pendingGaps.values().removeIf(giveUpAt -> giveUpAt < now);
+        if (pendingGaps.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(pendingGaps.size(), "?"));
+        return jdbcTemplate.query(SELECT_COLUMNS + "WHERE message_id IN (" + placeholders + ")",
+                ROW_MAPPER, pendingGaps.keySet().toArray());
+    }
+
+    private void trackGap(long id) {
+        long missing = id - lastSeenId - 1;
+        if (missing <= 0 || missing > MAX_TRACKED_GAP) {
+            return;
+        }
+        long giveUpAt = System.currentTimeMillis() + GAP_WAIT_MILLIS;
+        for (long gapId = lastSeenId + 1; gapId < id; gapId++) {
+            pendingGaps.put(gapId, giveUpAt);
+        }
+    }
+
+    private record Row(long id, String originNode, ClusterMessage message) {
+    }
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getLong("message_id"),
+            rs.getString("origin_node"),
+            ClusterMessage.builder()
+                    .channel(rs.getString("channel"))
+                    .target(rs.getString("target"))
+                    .eventName(rs.getString("event_name"))
+                    .payload(rs.getString("payload"))
+                    .eventId(rs.getObject("event_id", Long.class))
+                    .build());
+}
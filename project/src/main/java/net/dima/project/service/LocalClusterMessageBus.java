@@ -0,0 +1,18 @@
+package net.dima.project.service;
+
+import net.dima.project.dto.ClusterMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 단일 서버용 메시지 버스: 같은 JVM 의 처리기에 바로 전달합니다. (개발/테스트 기본값)
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.bus.type", havingValue = "local", matchIfMissing = true)
+public class LocalClusterMessageBus extends AbstractClusterMessageBus {
+
+    @Override
+    public void publish(ClusterMessage message) {
+        deliverLocally(message);
+    }
+}
@@ -0,0 +1,272 @@
+package net.dima.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.dto.BidCountUpdateDto;
+import net.dima.project.dto.NotificationMessageDto;
+import net.dima.project.dto.NotificationOutboxPayload;
+import net.dima.project.dto.OfferStatusUpdateDto;
+import net.dima.project.dto.RequestCardDto;
+import net.dima.project.dto.ShipmentStatusUpdateDto;
+import net.dima.project.entity.ContainerEntity;
+import net.dima.project.entity.NotificationOutbox;
+import net.dima.project.entity.NotificationOutboxType;
+import net.dima.project.entity.OfferEntity;
+import net.dima.project.entity.OfferStatus;
+import net.dima.project.entity.RequestEntity;
+import net.dima.project.entity.UserEntity;
+import net.dima.project.repository.ContainerRepository;
+import net.dima.project.repository.OfferRepository;
+import net.dima.project.repository.RequestRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 알림 outbox 발송기
+ * NotificationOutboxProcessor 가 꺼낸 outbox 묶음을 이벤트 종류별로 모아,
+ * 필요한 데이터를 종류별로 한 번씩 일괄 조회한 뒤 알림(DB)과 SSE 이벤트를 발송합니다.
+ * SSE 이벤트는 outbox 트랜잭션이 커밋된 뒤에만 보내므로, 롤백 후 한 건씩 다시 처리해도 중복 전송되지 않습니다.
+ * 대시보드 갱신처럼 여러 이벤트가 같은 결과를 내는 작업은 묶음당 한 번만 요청합니다. (DashboardMetricsRefresher 가 다시 모아서 계산)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    // 관리자 대시보드 수치를 바꾸는 이벤트
+    private static final Set<NotificationOutboxType> DASHBOARD_EVENTS = EnumSet.of(
+            NotificationOutboxType.REQUEST_CREATED, NotificationOutboxType.OFFER_CONFIRMED,
+            NotificationOutboxType.USER_JOINED, NotificationOutboxType.DEAL_MADE);
+
+    private final NotificationService notificationService;
+    private final SseEmitterService sseEmitterService;
+    private final OfferRepository offerRepository;
+    private final ContainerRepository containerRepository;
+    private final RequestRepository requestRepository;
+    private final ResaleChainService resaleChainService;
+    private final DashboardMetricsRefresher dashboardMetricsRefresher;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * outbox 묶음을 발송합니다. outbox 를 잠근 트랜잭션 안에서 호출되어야 합니다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deliver(List<NotificationOutbox> batch) {
+        Map<NotificationOutboxType, List<NotificationOutboxPayload>> payloadsByType = new EnumMap<>(NotificationOutboxType.class);
+        for (NotificationOutbox outbox : batch) {
+            payloadsByType.computeIfAbsent(outbox.getEventType(), type -> new ArrayList<>())
+                    .add(readPayload(outbox));
+        }
+
+        // 묶음 전체의 알림을 모아 한 번의 배치 INSERT 로 저장하고, SSE 전송은 모아 두었다가 커밋 후에 보냅니다.
+        List<NotificationMessageDto> notifications = new ArrayList<>();
+        List<Runnable> pushes = new ArrayList<>();
+        payloadsByType.forEach((type, payloads) -> timed(type, payloads.size(), () -> {
+            switch (type) {
+                case OFFER_CREATED -> deliverOfferCreated(payloads, notifications, pushes);
+                case OFFER_CONFIRMED -> deliverOfferConfirmed(payloads, notifications, pushes);
+                case CONTAINER_STATUS_CHANGED -> deliverContainerStatusChanged(payloads, notifications, pushes);
+                case REQUEST_CREATED -> deliverRequestCreated(payloads, pushes);
+                default -> { } // USER_JOINED, DEAL_MADE: 대시보드 갱신만 필요
+            }
+        }));
+        notificationService.sendNotifications(notifications);
+        pushAfterCommit(pushes);
+
+        if (payloadsByType.keySet().stream().anyMatch(DASHBOARD_EVENTS::contains)) {
+            dashboardMetricsRefresher.requestRefresh();
+        }
+    }
+
+    /**
+     * 신규 제안: 요청자에게 알림을 보내고, 요청별 최신 입찰 수를 SSE 로 전송합니다.
+     */
+    private void deliverOfferCreated(List<NotificationOutboxPayload> payloads, List<NotificationMessageDto> notifications,
+                                     List<Runnable> pushes) {
+        List<OfferEntity> offers = offerRepository.findAllWithDetailsByOfferIdIn(
+                payloads.stream().map(NotificationOutboxPayload::getOfferId).collect(Collectors.toSet()));
+        if (offers.isEmpty()) {
+            return;
+        }
+
+        List<RequestEntity> requests = offers.stream().map(OfferEntity::getRequest).distinct().collect(Collectors.toList());
+        Map<Long, Long> bidderCounts = offerRepository.countOffersByRequestIn(requests).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+
+        for (OfferEntity offer : offers) {
+            RequestEntity request = offer.getRequest();
+            UserEntity requester = request.getRequester();
+
+            String message = String.format("'%s' 요청에 새로운 제안이 도착했습니다.", request.getCargo().getItemName());
+            String url = (requester.getRoles().contains("cus")) ? "/cus/cusRequest" : "/fwd/my-posted-requests";
+            notifications.add(new NotificationMessageDto(requester, message, url));
+
+            BidCountUpdateDto updateDto = BidCountUpdateDto.builder()
+                    .requestId(request.getRequestId())
+                    .bidderCount(bidderCounts.getOrDefault(request.getRequestId(), 0L))
+                    .build();
+            pushes.add(() -> sseEmitterService.sendToClient(requester.getUserId(), "bid_count_update", updateDto));
+        }
+    }
+
+    /**
+     * 제안 확정(낙찰/거절): 관련 포워더 전원에게 결과 알림과 상태 변경 SSE 를 전송합니다.
+     */
+    private void deliverOfferConfirmed(List<NotificationOutboxPayload> payloads, List<NotificationMessageDto> notifications,
+                                       List<Runnable> pushes) {
+        Set<Long> offerIds = new HashSet<>();
+        payloads.forEach(payload -> {
+            offerIds.addAll(payload.getOfferIds());
+            offerIds.add(payload.getWinningOfferId());
+        });
+        Map<Long, OfferEntity> offersById = offerRepository.findAllWithDetailsByOfferIdIn(offerIds).stream()
+                .collect(Collectors.toMap(OfferEntity::getOfferId, Function.identity()));
+        String url = "/fwd/my-offers";
+
+        for (NotificationOutboxPayload payload : payloads) {
+            OfferEntity winningOffer = offersById.get(payload.getWinningOfferId());
+            if (winningOffer == null) {
+                continue; // 컨테이너 삭제 등으로 이미 사라진 제안
+            }
+            String itemName = winningOffer.getRequest().getCargo().getItemName();
+
+            for (Long offerId : payload.getOfferIds()) {
+                OfferEntity offer = offersById.get(offerId);
+                if (offer == null) {
+                    continue;
+                }
+                UserEntity forwarder = offer.getForwarder();
+                boolean isWinner = offer.getOfferId().equals(winningOffer.getOfferId());
+
+                String message = isWinner
+                        ? String.format("축하합니다! '%s' 제안이 낙찰되었습니다.", itemName)
+                        : String.format("아쉽지만 '%s' 제안은 마감되었습니다.", itemName);
+                notifications.add(new NotificationMessageDto(forwarder, message, url));
+
+                OfferStatusUpdateDto updateDto = OfferStatusUpdateDto.builder()
+                        .offerId(offer.getOfferId())
+                        .status(isWinner ? OfferStatus.ACCEPTED.name() : OfferStatus.REJECTED.name())
+                        .statusText(isWinner ? "수락" : "거절")
+                        .build();
+                pushes.add(() -> sseEmitterService.sendToClient(forwarder.getUserId(), "offer_status_update", updateDto));
+            }
+        }
+    }
+
+    /**
+     * 컨테이너 상태 변경: 컨테이너에 실린 화물의 재판매 체인 관련자(화주, 중간 포워더) 전원에게 알립니다.
+     * 체인 구성원은 재판매 체인 인덱스로 한 번에 조회합니다.
+     */
+    private void deliverContainerStatusChanged(List<NotificationOutboxPayload> payloads, List<NotificationMessageDto> notifications,
+                                               List<Runnable> pushes) {
+        List<String> containerIds = payloads.stream().map(NotificationOutboxPayload::getContainerId).distinct().toList();
+        Map<String, ContainerEntity> containersById = containerRepository.findAllById(containerIds).stream()
+                .collect(Collectors.toMap(ContainerEntity::getContainerId, Function.identity()));
+        List<OfferEntity> offers = offerRepository.findAllByContainer_ContainerIdIn(containerIds);
+        Map<String, List<OfferEntity>> offersByContainerId = offers.stream()
+                .collect(Collectors.groupingBy(offer -> offer.getContainer().getContainerId()));
+        Map<Long, List<RequestEntity>> chainsByRequestId = resaleChainService.findRequestChains(
+                offers.stream().map(OfferEntity::getRequest).distinct().toList());
+        String cusUrl = "/cus/tracking";
+        String fwdUrl = "/fwd/my-posted-requests"; // 재판매 요청 관리 페이지
+
+        for (NotificationOutboxPayload payload : payloads) {
+            ContainerEntity container = containersById.get(payload.getContainerId());
+            if (container == null) {
+                continue;
+            }
+            String message = String.format("컨테이너 '%s'의 상태가 변경되었습니다: %s", container.getContainerId(), payload.getMessage());
+            Set<UserEntity> receivers = new LinkedHashSet<>();
+
+            for (OfferEntity offer : offersByContainerId.getOrDefault(container.getContainerId(), List.of())) {
+                // 재판매 체인을 따라 올라가며 모든 요청자에게 실시간 배송 상태를 전송합니다.
+                for (RequestEntity chainRequest : chainsByRequestId.getOrDefault(offer.getRequest().getRequestId(), List.of())) {
+                    UserEntity requester = chainRequest.getRequester();
+                    receivers.add(requester);
+                    // 최초 화주(Owner)도 빠짐없이 수신자에 추가합니다.
+                    receivers.add(chainRequest.getCargo().getOwner());
+
+                    ShipmentStatusUpdateDto updateDto = ShipmentStatusUpdateDto.builder()
+                            .requestId(chainRequest.getRequestId())
+                            .detailedStatus(payload.getContainerStatus())
+                            .build();
+                    pushes.add(() -> sseEmitterService.sendToClient(requester.getUserId(), "shipment_update", updateDto));
+                }
+            }
+
+            // 포워더가 자신의 액션에 대한 알림은 받지 않도록 필터링합니다.
+            for (UserEntity receiver : receivers) {
+                if (!receiver.getUserSeq().equals(container.getForwarder().getUserSeq())) {
+                    String finalUrl = receiver.getRoles().contains("cus") ? cusUrl : fwdUrl;
+                    notifications.add(new NotificationMessageDto(receiver, message, finalUrl));
+                }
+            }
+        }
+    }
+
+    /**
+     * 신규 화물 요청: 현재 접속 중인 포워더에게 요청 카드를 SSE 로 전송합니다.
+     */
+    private void deliverRequestCreated(List<NotificationOutboxPayload> payloads, List<Runnable> pushes) {
+        List<RequestEntity> requests = requestRepository.findAllById(
+                payloads.stream().map(NotificationOutboxPayload::getRequestId).distinct().toList());
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        // 연결된 운송사에게만, 구독 인덱스를 통해 DB 조회 없이 전송합니다.
+        for (RequestEntity request : requests) {
+            RequestCardDto card = RequestCardDto.fromEntity(request, false);
+            pushes.add(() -> sseEmitterService.broadcast(SseEmitterService.TOPIC_FORWARDERS, "new_request", card));
+        }
+    }
+
+    /**
+     * 모아 둔 SSE 전송을 outbox 트랜잭션 커밋 후에 실행합니다.
+     */
+    private void pushAfterCommit(List<Runnable> pushes) {
+        if (pushes.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pushes.forEach(Runnable::run);
+            }
+        });
+    }
+
+    private NotificationOutboxPayload readPayload(NotificationOutbox outbox) {
+        try {
+            return objectMapper.readValue(outbox.getPayload(), NotificationOutboxPayload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("알림 outbox 내용을 읽을 수 없습니다: " + outbox.getId(), e);
+        }
+    }
+
+    /**
+     * 이벤트 종류별 처리 시간과 건수를 기록합니다. (/actuator/metrics/notification.dispatch)
+     */
+    private void timed(NotificationOutboxType type, int count, Runnable handler) {
+        meterRegistry.timer("notification.dispatch", "event", type.name()).record(handler);
+        meterRegistry.counter("notification.dispatch.events", "event", type.name()).increment(count);
+    }
+}
@@ -0,0 +1,147 @@
+package net.dima.project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.config.AsyncConfig;
+import net.dima.project.entity.NotificationOutbox;
+import net.dima.project.entity.NotificationOutboxStatus;
+import net.dima.project.repository.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 알림 outbox 를 묶음 단위로 꺼내 발송합니다.
+ * - 커밋 직후 NotificationOutboxWriter 가 깨우면 알림 전용 스레드 풀에서 즉시 발송
+ * - 서버 재시작/발송 실패로 남은 건은 주기 실행에서 다시 발송 (at-least-once)
+ * 묶음 발송이 실패하면 건별로 다시 시도하고, 재시도 한도를 넘긴 건은 FAILED 로 표시해 다음 건을 막지 않습니다.
+ */
+@Service
+@Slf4j
+public class NotificationOutboxProcessor {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_BATCHES_PER_DRAIN = 50;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TaskExecutor notificationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate failureTransactionTemplate;
+
+    // 이미 발송 작업이 예약되어 있으면 중복으로 예약하지 않습니다.
+    private final AtomicBoolean drainRequested = new AtomicBoolean(false);
+
+    public NotificationOutboxProcessor(NotificationOutboxRepository notificationOutboxRepository,
+                                       NotificationDispatcher notificationDispatcher,
+                                       @Qualifier(AsyncConfig.NOTIFICATION_EXECUTOR) TaskExecutor notificationExecutor,
+                                       PlatformTransactionManager transactionManager) {
+        this.notificationOutboxRepository = notificationOutboxRepository;
+        this.notificationDispatcher = notificationDispatcher;
+        this.notificationExecutor = notificationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.failureTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.failureTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 새 outbox 가 커밋되었을 때 호출되어 알림 전용 스레드 풀에서 발송을 시작합니다.
+     */
+    public void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            notificationExecutor.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public void drainScheduled() {
+        drain();
+    }
+
+    public void drain() {
+        for (int i = 0; i < MAX_BATCHES_PER_DRAIN; i++) {
+            if (processBatch() < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 발송 완료 후 7일이 지난 outbox 를 매일 새벽에 정리합니다.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeSent() {
+        Integer deleted = transactionTemplate.execute(status ->
+                notificationOutboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(7)));
+        log.info("발송 완료된 알림 outbox {}건 정리", deleted);
+    }
+
+    private int processBatch() {
+        List<Long> claimedIds = new ArrayList<>();
+        try {
+            Integer processed = transactionTemplate.execute(status -> {
+                List<NotificationOutbox> batch = notificationOutboxRepository.claimPending(BATCH_SIZE);
+                batch.forEach(outbox -> claimedIds.add(outbox.getId()));
+                if (!batch.isEmpty()) {
+                    notificationDispatcher.deliver(batch);
+                    markSent(batch);
+                }
+                return batch.size();
+            });
+            return processed == null ? 0 : processed;
+        } catch (RuntimeException e) {
+            log.warn("알림 outbox 묶음 발송 실패 ({}건), 건별로 다시 시도합니다.", claimedIds.size(), e);
+            claimedIds.forEach(this::processOne);
+            return claimedIds.size();
+        }
+    }
+
+    private void processOne(Long outboxId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<NotificationOutbox> single = notificationOutboxRepository.claimPendingById(outboxId);
+                if (!single.isEmpty()) {
+                    notificationDispatcher.deliver(single);
+                    markSent(single);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("알림 outbox 발송 실패: id={}", outboxId, e);
+            recordFailure(outboxId, e);
+        }
+    }
+
+    private void markSent(List<NotificationOutbox> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(outbox -> {
+            outbox.setStatus(NotificationOutboxStatus.SENT);
+            outbox.setAttempts(outbox.getAttempts() + 1);
+            outbox.setProcessedAt(now);
+        });
+    }
+
+    private void recordFailure(Long outboxId, RuntimeException e) {
+        failureTransactionTemplate.executeWithoutResult(status ->
+            notificationOutboxRepository.findById(outboxId).ifPresent(outbox -> {
+                outbox.setAttempts(outbox.getAttempts() + 1);
+                String error = String.valueOf(e.getMessage());
+                outbox.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+                if (outbox.getAttempts() >= MAX_ATTEMPTS) {
+                    outbox.setStatus(NotificationOutboxStatus.FAILED);
+                    outbox.setProcessedAt(LocalDateTime.now());
+                }
+            }));
+    }
+}
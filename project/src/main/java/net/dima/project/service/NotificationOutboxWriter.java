@@ -0,0 +1,97 @@
+package net.dima.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import net.dima.project.dto.NotificationOutboxPayload;
+import net.dima.project.entity.NotificationEvents.*;
+import net.dima.project.entity.NotificationOutboxType;
+import net.dima.project.repository.NotificationOutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * 알림 이벤트를 outbox 에 기록합니다.
+ * BEFORE_COMMIT 단계에서 발행한 트랜잭션과 함께 저장되므로, 업무 변경이 커밋되면 알림도 반드시 남습니다.
+ * 커밋 직후에는 발송기를 깨워 바로 발송하고, 놓친 건은 NotificationOutboxProcessor 의 주기 실행이 처리합니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutboxWriter {
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationOutboxProcessor notificationOutboxProcessor;
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOfferCreated(OfferCreatedEvent event) {
+        write(NotificationOutboxType.OFFER_CREATED, "OFFER_CREATED:" + event.getOfferId(),
+                NotificationOutboxPayload.builder().offerId(event.getOfferId()).build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOfferConfirmed(OfferConfirmedEvent event) {
+        write(NotificationOutboxType.OFFER_CONFIRMED, "OFFER_CONFIRMED:" + event.getWinningOfferId(),
+                NotificationOutboxPayload.builder()
+                        .offerIds(event.getOfferIds())
+                        .winningOfferId(event.getWinningOfferId())
+                        .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onContainerStatusChanged(ContainerStatusChangedEvent event) {
+        write(NotificationOutboxType.CONTAINER_STATUS_CHANGED,
+                "CONTAINER_STATUS:" + event.getContainerId() + ":" + event.getStatus() + ":" + event.getTransitionId(),
+                NotificationOutboxPayload.builder()
+                        .containerId(event.getContainerId())
+                        .containerStatus(event.getStatus().name())
+                        .message(event.getMessage())
+                        .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRequestCreated(RequestCreatedEvent event) {
+        write(NotificationOutboxType.REQUEST_CREATED, "REQUEST_CREATED:" + event.getRequestId(),
+                NotificationOutboxPayload.builder().requestId(event.getRequestId()).build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserJoined(UserJoinedEvent event) {
+        write(NotificationOutboxType.USER_JOINED, null, new NotificationOutboxPayload());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onDealMade(DealMadeEvent event) {
+        write(NotificationOutboxType.DEAL_MADE, null, new NotificationOutboxPayload());
+    }
+
+    private void write(NotificationOutboxType type, String dedupeKey, NotificationOutboxPayload payload) {
+        // 같은 이벤트가 다시 발행된 경우(재시도된 요청 등) 한 번만 기록합니다. (조회 후 저장 대신 한 문장으로 처리해 경합에도 안전)
+        // 중복이어서 추가되지 않았더라도 발송기를 깨우는 것은 무해합니다. (대기 중인 행이 없으면 바로 끝남)
+        notificationOutboxRepository.insertIfAbsent(type.name(), toJson(payload), dedupeKey, LocalDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notificationOutboxProcessor.requestDrain();
+                }
+            });
+        } else {
+            notificationOutboxProcessor.requestDrain();
+        }
+    }
+
+    private String toJson(NotificationOutboxPayload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("알림 outbox 내용을 저장할 수 없습니다.", e);
+        }
+    }
+}
@@ -4,12 +4,12 @@ package net.dima.project.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dima.project.dto.NotificationDto;
+import net.dima.project.dto.NotificationMessageDto;
 import net.dima.project.entity.Notification;
 import net.dima.project.entity.UserEntity;
 import net.dima.project.repository.NotificationRepository;
 import net.dima.project.repository.UserRepository;
 
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
@@ -17,9 +17,10 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,45 +31,65 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final SseEmitterService sseEmitterService; // SseEmitterService 주입
+    private final UnreadCounterService unreadCounterService;
 
     /**
      * 알림을 DB에 저장하고, 트랜잭션이 성공적으로 완료된 후에만 SSE 이벤트를 전송합니다.
      */
     @Transactional
     public void sendNotification(UserEntity receiver, String message, String url) {
-        Notification notification = Notification.builder()
-                .receiver(receiver)
-                .message(message)
-                .url(url)
-                .isRead(false)
-                .build();
-        
-        notificationRepository.save(notification);
-        log.info("DB: Notification saved for user: {}. Message: {}", receiver.getUserId(), message);
+        sendNotifications(List.of(new NotificationMessageDto(receiver, message, url)));
+    }
+
+    /**
+     * 여러 수신자에게 보낼 알림을 JDBC 배치 INSERT 한 번으로 저장하고,
+     * 커밋 후 한 번에 SSE 로 전송합니다. (읽지 않은 개수도 수신자 전체를 한 번의 쿼리로 조회)
+     */
+    @Transactional
+    public void sendNotifications(Collection<NotificationMessageDto> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<Notification> notifications = messages.stream()
+                .map(m -> Notification.builder()
+                        .receiver(m.getReceiver())
+                        .message(m.getMessage())
+                        .url(m.getUrl())
+                        .isRead(false)
+                        .build())
+                .collect(Collectors.toList());
+
+        notificationRepository.insertAll(notifications);
+        log.info("DB: {} notifications saved", notifications.size());
 
         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
             @Override
             public void afterCommit() {
-                sseEmitterService.sendToClient(receiver.getUserId(), "notification", NotificationDto.fromEntity(notification));
-                long unreadCount = getUnreadNotificationCount(receiver.getUserId());
-                sseEmitterService.sendToClient(receiver.getUserId(), "unreadCount", String.valueOf(unreadCount));
+                pushAfterCommit(notifications);
             }
         });
     }
 
-    @Transactional(readOnly = true)
+    private void pushAfterCommit(List<Notification> notifications) {
+        Map<Integer, String> userIdsBySeq = new HashMap<>();
+        Map<Integer, Long> newCountsBySeq = new HashMap<>();
+        for (Notification notification : notifications) {
+            UserEntity receiver = notification.getReceiver();
+            userIdsBySeq.put(receiver.getUserSeq(), receiver.getUserId());
+            newCountsBySeq.merge(receiver.getUserSeq(), 1L, Long::sum);
+            sseEmitterService.sendToClient(receiver.getUserId(), "notification", NotificationDto.fromEntity(notification));
+        }
+
+        // 캐시에 있는 수신자는 증가만, 없는 수신자만 한 번의 쿼리로 채움
+        unreadCounterService.addNotifications(newCountsBySeq, userIdsBySeq);
+        userIdsBySeq.values().forEach(userId -> sseEmitterService.sendToClient(userId, "unreadCount",
+                String.valueOf(unreadCounterService.getUnreadNotificationCount(userId))));
+    }
+
     public long getUnreadNotificationCount(String userId) {
-        UserEntity user = userRepository.findByUserId(userId);
-        return notificationRepository.countByReceiverAndIsReadFalse(user);
+        return unreadCounterService.getUnreadNotificationCount(userId);
     }
     
-    @Scheduled(fixedRate = 15000)
-    public void sendHeartbeat() {
-        sseEmitterService.getEmitters().forEach((userId, emitter) -> {
-            sseEmitterService.sendToClient(userId, "heartbeat", "ping");
-        });
-    }
-
     @Transactional(readOnly = true)
     public List<NotificationDto> getNotifications(String userId) {
         UserEntity user = userRepository.findByUserId(userId);
@@ -82,6 +103,7 @@ public class NotificationService {
     public void readNotification(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 알림입니다."));
+        boolean wasUnread = !notification.isRead();
         notification.setRead(true);
         
         // [✅ 추가] 단일 읽음 처리 후에도 unreadCount를 다시 보내주면 더 안정적입니다.
@@ -89,6 +111,9 @@ public class NotificationService {
             @Override
             public void afterCommit() {
                 String userId = notification.getReceiver().getUserId();
+                if (wasUnread) {
+                    unreadCounterService.notificationRead(userId);
+                }
                 long unreadCount = getUnreadNotificationCount(userId);
                 sseEmitterService.sendToClient(userId, "unreadCount", String.valueOf(unreadCount));
             }
@@ -104,6 +129,7 @@ public class NotificationService {
         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
             @Override
             public void afterCommit() {
+                unreadCounterService.allNotificationsRead(userId);
                 sseEmitterService.sendToClient(userId, "unreadCount", "0");
             }
         });
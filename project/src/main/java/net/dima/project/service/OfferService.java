@@ -43,6 +43,7 @@ public class OfferService {
     private final UserRepository userRepository;
     private final ContainerRepository containerRepository;
     private final ApplicationEventPublisher eventPublisher; 
+    private final ContainerCapacityService containerCapacityService;
 
     /**
      * 새로운 제안(Offer)을 생성합니다.
@@ -61,6 +62,9 @@ public class OfferService {
             throw new IllegalStateException("이미 해당 요청에 대한 제안을 제출했습니다.");
         }
 
+        // 입찰 제출 시점에 화물 용량만큼 컨테이너 용량을 확보합니다. (부족하면 예외)
+        containerCapacityService.reserve(container, request.getCargo().getTotalCbm(), 0);
+
         OfferEntity newOffer = OfferEntity.builder()
                 .request(request)
                 .container(container)
@@ -70,10 +74,11 @@ public class OfferService {
                 .status(OfferStatus.PENDING)
                 .build();
         offerRepository.save(newOffer);
+        containerCapacityService.refresh(container);
         
         // [✅ 아래 코드 추가]
         // 제안이 성공적으로 생성되면 이벤트를 발행합니다.
-        eventPublisher.publishEvent(new NotificationEvents.OfferCreatedEvent(this, newOffer));
+        eventPublisher.publishEvent(new NotificationEvents.OfferCreatedEvent(this, newOffer.getOfferId()));
     
     }
     
@@ -219,6 +224,7 @@ public class OfferService {
              throw new IllegalStateException("'진행중' 상태의 제안만 취소할 수 있습니다.");
          }
          offerRepository.delete(offer);
+         containerCapacityService.refresh(offer.getContainer());
      }
      
      /**
@@ -1,6 +1,7 @@
 // [✅ RequestService.java 파일 전체를 이 최종 코드로 교체해주세요]
 package net.dima.project.service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,19 +12,23 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import net.dima.project.dto.CursorPageDto;
 import net.dima.project.dto.MyPostedRequestDto;
 import net.dima.project.dto.NewRequestDto;
 import net.dima.project.dto.RequestCardDto;
+import net.dima.project.dto.RequestCursor;
 import net.dima.project.entity.*;
 import net.dima.project.repository.CargoRepository;
 import net.dima.project.repository.ContainerCargoRepository;
@@ -44,15 +49,79 @@ public class RequestService {
     private final ContainerCargoRepository containerCargoRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final ChatService chatService;
+    private final ResaleChainService resaleChainService;
+    private final ContainerCapacityService containerCapacityService;
+    private final DashboardCounterService dashboardCounterService;
 
-    // (getRequests, createNewRequest, confirmShipperOffer, findFinalOffer 메소드는 이전과 동일)
-    public Page<RequestCardDto> getRequests(
+    /**
+     * 견적요청조회 목록을 키셋(seek) 방식으로 조회합니다.
+     * OFFSET/COUNT 없이 (정렬값, requestId) 기준으로 다음 행부터 size+1건만 읽으므로
+     * 몇 번째 페이지든 첫 페이지와 같은 비용이 듭니다.
+     * @param cursor 이전 응답의 nextCursor (첫 페이지는 null)
+     * @param sortField createdAt, deadline 또는 cargo.totalCbm
+     */
+    public CursorPageDto<RequestCardDto> getRequestsByCursor(
             boolean excludeClosed,
             String tradeType, String transportType,
             String departurePort, String arrivalPort,
-            String itemName, Pageable pageable, String currentUserId) {
+            String itemName, String cursor, String sortField, Sort.Direction direction,
+            int size, String currentUserId) {
 
-        Specification<RequestEntity> spec = (root, query, cb) -> {
+        if (!RequestCursor.isSupportedSortField(sortField)) {
+            throw new IllegalArgumentException("지원하지 않는 정렬 기준입니다: " + sortField);
+        }
+        RequestCursor after = (cursor == null || cursor.isBlank()) ? null : RequestCursor.decode(cursor);
+        if (after != null && !after.getSortField().equals(sortField)) {
+            throw new IllegalArgumentException("커서의 정렬 기준이 요청과 다릅니다.");
+        }
+
+        Specification<RequestEntity> spec = requestFilterSpec(excludeClosed, tradeType, transportType, departurePort, arrivalPort, itemName)
+                .and(keysetSpec(after, sortField, direction))
+                .and((root, query, cb) -> {
+                    root.fetch("cargo", JoinType.INNER);
+                    root.fetch("requester", JoinType.INNER);
+                    return null;
+                });
+        Sort sort = Sort.by(direction, sortField).and(Sort.by(direction, "requestId"));
+
+        List<RequestEntity> rows = requestRepository.findBy(spec, q -> q.sortBy(sort).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<RequestEntity> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        Set<Long> offeredRequestIds = pageRows.isEmpty()
+                ? Set.of()
+                : offerRepository.findOfferedRequestIdsByUserIdAndRequestIn(currentUserId, pageRows);
+
+        String nextCursor = null;
+        if (hasNext) {
+            RequestEntity last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new RequestCursor(sortField, sortValueOf(last, sortField), last.getRequestId()).encode();
+        }
+
+        return CursorPageDto.<RequestCardDto>builder()
+                .content(pageRows.stream()
+                        .map(req -> RequestCardDto.fromEntity(req, offeredRequestIds.contains(req.getRequestId())))
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    private static Comparable<?> sortValueOf(RequestEntity request, String sortField) {
+        return switch (sortField) {
+            case RequestCursor.SORT_DEADLINE -> request.getDeadline();
+            case RequestCursor.SORT_CBM -> RequestCursor.scaledCbm(BigDecimal.valueOf(request.getCargo().getTotalCbm()));
+            default -> request.getCreatedAt();
+        };
+    }
+
+    private Specification<RequestEntity> requestFilterSpec(
+            boolean excludeClosed,
+            String tradeType, String transportType,
+            String departurePort, String arrivalPort,
+            String itemName) {
+        return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
             LocalDateTime now = LocalDateTime.now();
 
@@ -70,32 +139,69 @@ public class RequestService {
                 Join<RequestEntity, CargoEntity> cargoJoin = root.join("cargo");
                 predicates.add(cb.like(cargoJoin.get("itemName"), "%" + itemName + "%"));
             }
-
-            // --- [✅ 바로 이 부분이 수정/추가된 핵심 코드입니다] ---
             if (departurePort != null && !departurePort.isEmpty()) {
                 predicates.add(cb.equal(root.get("departurePort"), departurePort));
             }
             if (arrivalPort != null && !arrivalPort.isEmpty()) {
                 predicates.add(cb.equal(root.get("arrivalPort"), arrivalPort));
             }
-            // --- [✅ 여기까지 수정/추가] ---
 
             return cb.and(predicates.toArray(new Predicate[0]));
         };
+    }
 
-        Page<RequestEntity> requestPage = requestRepository.findAll(spec, pageable);
-        
-        List<RequestEntity> requestsOnPage = requestPage.getContent();
-        if (requestsOnPage.isEmpty()) {
-            return requestPage.map(req -> RequestCardDto.fromEntity(req, false));
+    /**
+     * (sortField, requestId) 가 커서보다 뒤에 있는 행만 남기는 조건
+     * DESC: sortField < v OR (sortField = v AND requestId < id)
+     * ASC : sortField > v OR (sortField = v AND requestId > id)
+     */
+    private Specification<RequestEntity> keysetSpec(RequestCursor after, String sortField, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            if (after == null) {
+                return null;
+            }
+            Path<Long> idPath = root.get("requestId");
+            if (RequestCursor.SORT_CBM.equals(sortField)) {
+                Path<Double> cbmPath = root.get("cargo").get("totalCbm");
+                return cbmSeekPredicate(cb, cbmPath, (BigDecimal) after.getSortValue(), idPath, after.getRequestId(), direction);
+            }
+            Path<LocalDateTime> sortPath = root.get(sortField);
+            return seekPredicate(cb, sortPath, (LocalDateTime) after.getSortValue(), idPath, after.getRequestId(), direction);
+        };
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate seekPredicate(
+            CriteriaBuilder cb, Path<Y> sortPath, Y sortValue, Path<Long> idPath, Long requestId, Sort.Direction direction) {
+        if (direction.isDescending()) {
+            return cb.or(
+                    cb.lessThan(sortPath, sortValue),
+                    cb.and(cb.equal(sortPath, sortValue), cb.lessThan(idPath, requestId)));
         }
+        return cb.or(
+                cb.greaterThan(sortPath, sortValue),
+                cb.and(cb.equal(sortPath, sortValue), cb.greaterThan(idPath, requestId)));
+    }
 
-        Set<Long> offeredRequestIds = offerRepository.findOfferedRequestIdsByUserIdAndRequestIn(currentUserId, requestsOnPage);
-        
-        return requestPage.map(entity -> {
-            boolean hasMyOffer = offeredRequestIds.contains(entity.getRequestId());
-            return RequestCardDto.fromEntity(entity, hasMyOffer);
-        });
+    /**
+     * CBM 키셋 조건: total_cbm 은 소수 4자리 DECIMAL 이라 값이 0.0001 단위로만 존재하므로,
+     * double 로 같은지 비교하지 않고 커서 값 ±0.00005 구간을 "같은 값"으로 봅니다.
+     * DESC: cbm < 하한 OR (하한 <= cbm <= 상한 AND requestId < id)
+     * ASC : cbm > 상한 OR (하한 <= cbm <= 상한 AND requestId > id)
+     */
+    private static Predicate cbmSeekPredicate(
+            CriteriaBuilder cb, Path<Double> cbmPath, BigDecimal cbm, Path<Long> idPath, Long requestId, Sort.Direction direction) {
+        BigDecimal halfUnit = new BigDecimal("0.5").movePointLeft(RequestCursor.CBM_SCALE); // 0.00005
+        Double lower = cbm.subtract(halfUnit).doubleValue();
+        Double upper = cbm.add(halfUnit).doubleValue();
+        Predicate sameCbm = cb.between(cbmPath, lower, upper);
+        if (direction.isDescending()) {
+            return cb.or(
+                    cb.lessThan(cbmPath, lower),
+                    cb.and(sameCbm, cb.lessThan(idPath, requestId)));
+        }
+        return cb.or(
+                cb.greaterThan(cbmPath, upper),
+                cb.and(sameCbm, cb.greaterThan(idPath, requestId)));
     }
 
     @Transactional(readOnly = true)
@@ -107,6 +213,7 @@ public class RequestService {
             List<Predicate> predicates = new ArrayList<>();
             predicates.add(cb.equal(root.get("requester"), shipper));
             predicates.add(cb.isNull(root.get("sourceOffer")));
+            predicates.add(cb.isNull(root.get("settledAt")));
 
             if (itemName != null && !itemName.isBlank()) {
                 Join<RequestEntity, CargoEntity> cargoJoin = root.join("cargo");
@@ -135,70 +242,24 @@ public class RequestService {
         Page<RequestEntity> requestPage = requestRepository.findAll(spec, pageable);
         List<RequestEntity> requestsOnPage = requestPage.getContent();
 
-        List<RequestEntity> allRequests = requestRepository.findAll(spec, pageable.getSort());
+        List<RequestEntity> openRequests = requestsOnPage.stream().filter(r -> r.getStatus() == RequestStatus.OPEN).collect(Collectors.toList());
+        List<RequestEntity> closedRequests = requestsOnPage.stream().filter(r -> r.getStatus() == RequestStatus.CLOSED).collect(Collectors.toList());
 
-        List<RequestEntity> openRequests = allRequests.stream().filter(r -> r.getStatus() == RequestStatus.OPEN).collect(Collectors.toList());
-        List<RequestEntity> closedRequests = allRequests.stream().filter(r -> r.getStatus() == RequestStatus.CLOSED).collect(Collectors.toList());
-
-        Map<Long, Long> bidderCounts = offerRepository.countOffersByRequestIn(openRequests).stream()
+        Map<Long, Long> bidderCounts = openRequests.isEmpty() ? Map.of() : offerRepository.countOffersByRequestIn(openRequests).stream()
                 .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
-        Map<Long, OfferEntity> winningOffers = offerRepository.findWinningOffersForRequests(closedRequests).stream()
+        Map<Long, OfferEntity> winningOffers = closedRequests.isEmpty() ? Map.of() : offerRepository.findWinningOffersForRequests(closedRequests).stream()
                 .collect(Collectors.toMap(offer -> offer.getRequest().getRequestId(), Function.identity(), (o1, o2) -> o1));
-        Map<Long, Optional<OfferEntity>> finalOffers = closedRequests.stream()
-                .collect(Collectors.toMap(RequestEntity::getRequestId, this::findFinalOffer));
-
-        // 2. '정산완료' 건을 제외한 최종 DTO 리스트를 만듭니다.
-        List<MyPostedRequestDto> fullDtoList = allRequests.stream()
-            .map(req -> {
-                if (req.getStatus() == RequestStatus.OPEN) {
-                    return MyPostedRequestDto.fromEntity(req, bidderCounts.getOrDefault(req.getRequestId(), 0L));
-                } else { // CLOSED
-                    Optional<OfferEntity> directWinningOfferOpt = Optional.ofNullable(winningOffers.get(req.getRequestId()));
-                    Optional<OfferEntity> finalOfferInChainOpt = finalOffers.getOrDefault(req.getRequestId(), Optional.empty());
-
-                    if (finalOfferInChainOpt.map(o -> o.getContainer().getStatus() == ContainerStatus.SETTLED).orElse(false)) {
-                        return null; 
-                    }
-                    return MyPostedRequestDto.fromEntity(req, directWinningOfferOpt, finalOfferInChainOpt);
-                }
-            })
-            .filter(dto -> dto != null)
-            .collect(Collectors.toList());
+        Map<Long, Optional<OfferEntity>> finalOffers = resaleChainService.findFinalOffers(closedRequests);
 
-        // 3. 필터링이 완료된 최종 리스트를 가지고 수동으로 페이지네이션을 적용합니다.
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), fullDtoList.size());
-        
-        List<MyPostedRequestDto> pageContent = (start > end) ? List.of() : fullDtoList.subList(start, end);
-        
-        return new PageImpl<>(pageContent, pageable, fullDtoList.size());
-    }
-    
-    private Optional<OfferEntity> findFinalOffer(RequestEntity request) {
-        RequestEntity currentRequest = request;
-        
-        while (true) {
-            Optional<OfferEntity> winningOfferOpt = offerRepository.findAllByRequest(currentRequest)
-                    .stream()
-                    .filter(o -> o.getStatus() != OfferStatus.PENDING && o.getStatus() != OfferStatus.REJECTED)
-                    .findFirst();
-
-            if (winningOfferOpt.isPresent()) {
-                OfferEntity winningOffer = winningOfferOpt.get();
-                if (winningOffer.getStatus() == OfferStatus.RESOLD) {
-                    List<RequestEntity> nextRequests = requestRepository.findBySourceOfferOrderedByCreatedAtDesc(winningOffer);
-                    if (!nextRequests.isEmpty()) {
-                        currentRequest = nextRequests.get(0);
-                    } else {
-                        return winningOfferOpt;
-                    }
-                } else {
-                    return winningOfferOpt;
-                }
-            } else {
-                return Optional.empty();
+        // 정산완료 건은 settled_at 조건으로 이미 DB에서 제외되었으므로, 현재 페이지의 요청만 DTO로 변환합니다.
+        return requestPage.map(req -> {
+            if (req.getStatus() == RequestStatus.OPEN) {
+                return MyPostedRequestDto.fromEntity(req, bidderCounts.getOrDefault(req.getRequestId(), 0L));
             }
-        }
+            Optional<OfferEntity> directWinningOfferOpt = Optional.ofNullable(winningOffers.get(req.getRequestId()));
+            Optional<OfferEntity> finalOfferInChainOpt = finalOffers.getOrDefault(req.getRequestId(), Optional.empty());
+            return MyPostedRequestDto.fromEntity(req, directWinningOfferOpt, finalOfferInChainOpt);
+        });
     }
     
     @Transactional
@@ -226,13 +287,11 @@ public class RequestService {
                 .sourceOffer(null)
                 .build();
         requestRepository.save(newRequest);
+        resaleChainService.registerRootRequest(newRequest);
+        dashboardCounterService.requestCreated();
         
-        // --- [✅ 여기부터 추가] ---
-        // 이벤트에 담아 보낼 DTO 생성 (hasMyOffer는 false)
-        RequestCardDto dtoForEvent = RequestCardDto.fromEntity(newRequest, false);
-        // 이벤트 발행
-        eventPublisher.publishEvent(new NotificationEvents.RequestCreatedEvent(this, dtoForEvent));
-        // --- [✅ 여기까지 추가] ---
+        // 이벤트 발행 (접속 중인 포워더에게 보낼 요청 카드는 발송 시점에 만듭니다)
+        eventPublisher.publishEvent(new NotificationEvents.RequestCreatedEvent(this, newRequest.getRequestId()));
     }
     
     @Transactional
@@ -252,13 +311,22 @@ public class RequestService {
                 .filter(o -> o.getOfferId().equals(winningOfferId))
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 제안입니다."));
+
+        // 낙찰 제안의 입찰 용량을 확정 용량으로 전환합니다. (마감이 지나 풀린 입찰이면 잔여 용량을 다시 확인)
+        double cargoCbm = request.getCargo().getTotalCbm();
+        double heldCbm = request.getDeadline().isAfter(LocalDateTime.now()) ? cargoCbm : 0;
+        containerCapacityService.reserve(winningOffer.getContainer(), cargoCbm, heldCbm);
         
+        dashboardCounterService.offerStatusChanged(winningOffer, winningOffer.getStatus(), OfferStatus.ACCEPTED);
         allOffers.forEach(offer -> {
             offer.setStatus(offer.equals(winningOffer) ? OfferStatus.ACCEPTED : OfferStatus.REJECTED);
         });
         request.setStatus(RequestStatus.CLOSED);
+        resaleChainService.onWinnerSelected(request, winningOffer);
+        chatService.createChatRoomForOffer(winningOffer);
         
-        eventPublisher.publishEvent(new NotificationEvents.OfferConfirmedEvent(this, allOffers, winningOffer));
+        eventPublisher.publishEvent(new NotificationEvents.OfferConfirmedEvent(this,
+                allOffers.stream().map(OfferEntity::getOfferId).toList(), winningOffer.getOfferId()));
         eventPublisher.publishEvent(new NotificationEvents.DealMadeEvent(this));
 
         if (!containerCargoRepository.existsByOffer_OfferId(winningOfferId)) {
@@ -272,5 +340,6 @@ public class RequestService {
                     .build();
             containerCargoRepository.save(cargoInContainer);
         }
+        containerCapacityService.refreshForOffers(allOffers);
     }
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package net.dima.project.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.entity.OfferEntity;
+import net.dima.project.entity.OfferStatus;
+import net.dima.project.entity.RequestEntity;
+import net.dima.project.entity.RequestStatus;
+import net.dima.project.entity.ResaleChainEntity;
+import net.dima.project.repository.OfferRepository;
+import net.dima.project.repository.RequestRepository;
+import net.dima.project.repository.ResaleChainRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 재판매 체인 인덱스(resale_chain)를 관리합니다.
+ * 체인이 바뀌는 시점(요청 등록, 낙찰 확정, 재판매 등록/취소)에만 인덱스를 갱신하고,
+ * 조회 쪽에서는 여러 요청의 최종 제안을 한 번의 쿼리로 가져갑니다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class ResaleChainService {
+
+    private final ResaleChainRepository resaleChainRepository;
+    private final OfferRepository offerRepository;
+    private final RequestRepository requestRepository;
+
+    /**
+     * 화주가 올린 최초 요청을 체인의 root로 등록합니다.
+     */
+    public void registerRootRequest(RequestEntity request) {
+        resaleChainRepository.save(ResaleChainEntity.builder()
+                .requestId(request.getRequestId())
+                .rootRequestId(request.getRequestId())
+                .depth(0)
+                .build());
+    }
+
+    /**
+     * 재판매 요청을 원본 제안이 속한 체인의 다음 깊이로 등록합니다.
+     */
+    public void registerResaleRequest(RequestEntity resaleRequest) {
+        RequestEntity parentRequest = resaleRequest.getSourceOffer().getRequest();
+        ResaleChainEntity parent = resaleChainRepository.findById(parentRequest.getRequestId())
+                .orElseGet(() -> backfill(parentRequest));
+
+        resaleChainRepository.save(ResaleChainEntity.builder()
+                .requestId(resaleRequest.getRequestId())
+                .rootRequestId(parent.getRootRequestId())
+                .depth(parent.getDepth() + 1)
+                .build());
+    }
+
+    /**
+     * 요청에 낙찰자가 정해지면, 해당 요청과 상위 체인 전체의 최종 제안을 낙찰 제안으로 바꿉니다.
+     */
+    public void onWinnerSelected(RequestEntity request, OfferEntity winningOffer) {
+        ResaleChainEntity chain = resaleChainRepository.findById(request.getRequestId())
+                .orElseGet(() -> backfill(request));
+        resaleChainRepository.updateFinalOfferUpToDepth(chain.getRootRequestId(), chain.getDepth(), winningOffer);
+    }
+
+    /**
+     * 재판매가 취소/만료되면 해당 요청은 체인에서 빠집니다. (상위 요청의 최종 제안은 원본 제안 그대로)
+     * 행은 지우지 않고 detached 로 남겨, 조회/보정 시 체인을 다시 따라가지 않도록 합니다.
+     */
+    public void onResaleReverted(RequestEntity resaleRequest) {
+        ResaleChainEntity chain = resaleChainRepository.findById(resaleRequest.getRequestId())
+                .orElseGet(() -> backfill(resaleRequest));
+        chain.setDetached(true);
+        chain.setFinalOffer(null);
+    }
+
+    /**
+     * 삭제되는 제안을 가리키던 인덱스를 정리합니다. (컨테이너 삭제 시)
+     * 원본 제안이 사라져 독립 요청이 된 재판매 요청은 인덱스에서 빼고, 다음 조회 시 다시 계산되도록 합니다.
+     */
+    public void onOffersDeleted(List<OfferEntity> offers, List<RequestEntity> detachedRequests) {
+        if (!offers.isEmpty()) {
+            resaleChainRepository.clearFinalOffers(offers);
+        }
+        detachedRequests.forEach(req -> resaleChainRepository.findById(req.getRequestId())
+                .ifPresent(resaleChainRepository::delete));
+    }
+
+    /**
+     * 여러 요청의 최종 운송 제안을 한 번에 조회합니다.
+     * @return key: requestId, value: 최종 제안 (아직 낙찰 전이면 Optional.empty())
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Optional<OfferEntity>> findFinalOffers(Collection<RequestEntity> requests) {
+        if (requests.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ResaleChainEntity> chains = resaleChainRepository.findAllWithFinalOfferByRequestIdIn(
+                        requests.stream().map(RequestEntity::getRequestId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ResaleChainEntity::getRequestId, Function.identity()));
+
+        Map<Long, Optional<OfferEntity>> result = new HashMap<>();
+        for (RequestEntity request : requests) {
+            ResaleChainEntity chain = chains.get(request.getRequestId());
+            // 인덱스 도입 이전 데이터처럼 아직 등록되지 않은 요청은 기존 방식으로 체인을 따라갑니다.
+            result.put(request.getRequestId(), chain != null
+                    ? Optional.ofNullable(chain.getFinalOffer())
+                    : walkFinalOffer(request));
+        }
+        return result;
+    }
+
+    public Optional<OfferEntity> findFinalOffer(RequestEntity request) {
+        return findFinalOffers(List.of(request)).getOrDefault(request.getRequestId(), Optional.empty());
+    }
+
+    /**
+     * 요청마다 자신과 상위 재판매 요청들(자신 → 최초 요청 순)을 조회합니다.
+     * 인덱스의 root/깊이로 체인 구성원을 한 번에 읽으므로 요청 수나 체인 길이와 관계없이 쿼리 수가 일정하며,
+     * 요청자와 화물 소유자도 함께 로딩됩니다.
+     * @return key: requestId, value: 체인 요청 목록
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<RequestEntity>> findRequestChains(Collection<RequestEntity> requests) {
+        if (requests.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ResaleChainEntity> chains = resaleChainRepository.findAllById(
+                        requests.stream().map(RequestEntity::getRequestId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ResaleChainEntity::getRequestId, Function.identity()));
+
+        Set<Long> rootRequestIds = chains.values().stream()
+                .filter(chain -> !chain.isDetached())
+                .map(ResaleChainEntity::getRootRequestId)
+                .collect(Collectors.toSet());
+        Map<Long, List<Object[]>> membersByRoot = rootRequestIds.isEmpty() ? Map.of()
+                : resaleChainRepository.findChainMembersByRootIn(rootRequestIds).stream()
+                        .collect(Collectors.groupingBy(row -> ((ResaleChainEntity) row[0]).getRootRequestId()));
+
+        Map<Long, List<RequestEntity>> result = new HashMap<>();
+        for (RequestEntity request : requests) {
+            ResaleChainEntity chain = chains.get(request.getRequestId());
+            if (chain == null || chain.isDetached()) {
+                // 체인에서 빠진 재판매 요청(취소된 요청의 입찰 등)은 드물어서 원본 제안을 따라 올라갑니다.
+                result.put(request.getRequestId(), walkRequestChain(request));
+                continue;
+            }
+            result.put(request.getRequestId(), membersByRoot.getOrDefault(chain.getRootRequestId(), List.of()).stream()
+                    .filter(row -> ((ResaleChainEntity) row[0]).getDepth() <= chain.getDepth())
+                    .sorted(Comparator.comparingInt((Object[] row) -> ((ResaleChainEntity) row[0]).getDepth()).reversed())
+                    .map(row -> (RequestEntity) row[1])
+                    .collect(Collectors.toList()));
+        }
+        return result;
+    }
+
+    /**
+     * 애플리케이션 시작 시, 인덱스 도입 이전에 생성된 요청들을 인덱스에 채워 넣습니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingChains() {
+        List<RequestEntity> missing = resaleChainRepository.findRequestsWithoutChain();
+        if (missing.isEmpty()) {
+            return;
+        }
+        log.info("재판매 체인 인덱스 보정 시작: {}건", missing.size());
+        missing.forEach(this::backfill);
+        log.info("재판매 체인 인덱스 보정 완료");
+    }
+
+    private ResaleChainEntity backfill(RequestEntity request) {
+        Optional<ResaleChainEntity> existing = resaleChainRepository.findById(request.getRequestId());
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        RequestEntity root = request;
+        int depth = 0;
+        while (root.getSourceOffer() != null) {
+            root = root.getSourceOffer().getRequest();
+            depth++;
+        }
+
+        Optional<OfferEntity> finalOffer = walkFinalOffer(request);
+
+        // 낙찰 없이 마감된 재판매 요청(취소/만료)은 체인에서 빠진 요청이므로 detached 로 등록합니다.
+        boolean abandonedResale = request.getSourceOffer() != null
+                && request.getStatus() == RequestStatus.CLOSED
+                && finalOffer.isEmpty();
+        return resaleChainRepository.save(ResaleChainEntity.builder()
+                .requestId(request.getRequestId())
+                .rootRequestId(root.getRequestId())
+                .depth(depth)
+                .finalOffer(finalOffer.orElse(null))
+                .detached(abandonedResale)
+                .build());
+    }
+
+    private List<RequestEntity> walkRequestChain(RequestEntity request) {
+        List<RequestEntity> chain = new ArrayList<>();
+        for (RequestEntity current = request; current != null;
+             current = current.getSourceOffer() != null ? current.getSourceOffer().getRequest() : null) {
+            chain.add(current);
+        }
+        return chain;
+    }
+
+    /**
+     * 인덱스 없이 체인을 한 단계씩 따라가는 기존 방식 (보정 및 미등록 요청 조회용)
+     */
+    private Optional<OfferEntity> walkFinalOffer(RequestEntity request) {
+        RequestEntity currentRequest = request;
+        while (true) {
+            Optional<OfferEntity> winningOfferOpt = offerRepository.findAllByRequest(currentRequest).stream()
+                    .filter(o -> o.getStatus() != OfferStatus.PENDING && o.getStatus() != OfferStatus.REJECTED)
+                    .findFirst();
+
+            if (winningOfferOpt.isEmpty()) {
+                return Optional.empty();
+            }
+            OfferEntity winningOffer = winningOfferOpt.get();
+            if (winningOffer.getStatus() != OfferStatus.RESOLD) {
+                return winningOfferOpt;
+            }
+            List<RequestEntity> nextRequests = requestRepository.findBySourceOfferOrderedByCreatedAtDesc(winningOffer);
+            if (nextRequests.isEmpty()) {
+                return winningOfferOpt;
+            }
+            currentRequest = nextRequests.get(0);
+        }
+    }
+}
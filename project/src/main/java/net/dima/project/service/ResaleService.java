@@ -37,6 +37,9 @@ public class ResaleService {
     private final ContainerCargoRepository containerCargoRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final ChatService chatService;
+    private final ResaleChainService resaleChainService;
+    private final ContainerCapacityService containerCapacityService;
+    private final DashboardCounterService dashboardCounterService;
 
     @Transactional
     public void createResaleRequest(Long offerId, String currentUserId) {
@@ -54,6 +57,7 @@ public class ResaleService {
             throw new SecurityException("자신의 제안만 재판매할 수 있습니다.");
         }
 
+        dashboardCounterService.offerStatusChanged(originalOffer, originalOffer.getStatus(), OfferStatus.FOR_SALE);
         originalOffer.setStatus(OfferStatus.FOR_SALE);
 
         RequestEntity resaleRequest = RequestEntity.builder()
@@ -69,6 +73,9 @@ public class ResaleService {
                 .sourceOffer(originalOffer)
                 .build();
         requestRepository.save(resaleRequest);
+        resaleChainService.registerResaleRequest(resaleRequest);
+        dashboardCounterService.requestCreated();
+        containerCapacityService.refresh(originalOffer.getContainer());
     }
     
     @Transactional
@@ -92,12 +99,16 @@ public class ResaleService {
             throw new IllegalStateException("원본 제안이 없는 재판매 요청입니다.");
         }
         
+        dashboardCounterService.offerStatusChanged(originalOffer, originalOffer.getStatus(), OfferStatus.ACCEPTED);
         originalOffer.setStatus(OfferStatus.ACCEPTED);
 
         List<OfferEntity> bidsToCancel = offerRepository.findAllByRequest(resaleRequest);
         bidsToCancel.forEach(bid -> bid.setStatus(OfferStatus.REJECTED));
 
         resaleRequest.setStatus(RequestStatus.CLOSED);
+        resaleChainService.onResaleReverted(resaleRequest);
+        containerCapacityService.refresh(originalOffer.getContainer());
+        containerCapacityService.refreshForOffers(bidsToCancel);
     }
     
     @Transactional(readOnly = true)
@@ -113,8 +124,7 @@ public class ResaleService {
                 .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
         Map<Long, OfferEntity> winningOffers = offerRepository.findWinningOffersForRequests(closedRequests).stream()
                 .collect(Collectors.toMap(offer -> offer.getRequest().getRequestId(), Function.identity()));
-        Map<Long, Optional<OfferEntity>> finalOffers = closedRequests.stream()
-                .collect(Collectors.toMap(RequestEntity::getRequestId, this::findFinalOffer));
+        Map<Long, Optional<OfferEntity>> finalOffers = resaleChainService.findFinalOffers(closedRequests);
 
         List<MyPostedRequestDto> dtoList = allMyResaleRequests.stream()
             .map(req -> {
@@ -192,13 +202,22 @@ public class ResaleService {
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("선택한 입찰이 존재하지 않습니다."));
 
+        // 낙찰 입찰의 용량을 확정 용량으로 전환합니다. (마감이 지나 풀린 입찰이면 잔여 용량을 다시 확인)
+        double cargoCbm = resaleRequest.getCargo().getTotalCbm();
+        double heldCbm = resaleRequest.getDeadline().isAfter(LocalDateTime.now()) ? cargoCbm : 0;
+        containerCapacityService.reserve(winningOffer.getContainer(), cargoCbm, heldCbm);
+
+        dashboardCounterService.offerStatusChanged(winningOffer, winningOffer.getStatus(), OfferStatus.ACCEPTED);
         allBids.forEach(bid -> bid.setStatus(bid.equals(winningOffer) ? OfferStatus.ACCEPTED : OfferStatus.REJECTED));
         resaleRequest.setStatus(RequestStatus.CLOSED);
 
         OfferEntity originalOffer = resaleRequest.getSourceOffer();
         originalOffer.setStatus(OfferStatus.RESOLD);
+        resaleChainService.onWinnerSelected(resaleRequest, winningOffer);
+        chatService.createChatRoomForOffer(winningOffer);
         
-        eventPublisher.publishEvent(new NotificationEvents.OfferConfirmedEvent(this, allBids, winningOffer));
+        eventPublisher.publishEvent(new NotificationEvents.OfferConfirmedEvent(this,
+                allBids.stream().map(OfferEntity::getOfferId).toList(), winningOffer.getOfferId()));
         eventPublisher.publishEvent(new NotificationEvents.DealMadeEvent(this));
         
         containerCargoRepository.findByOfferOfferId(originalOffer.getOfferId())
@@ -213,31 +232,7 @@ public class ResaleService {
                     .build();
             return containerCargoRepository.save(newCargo);
         });
-    }
-    
-    private Optional<OfferEntity> findFinalOffer(RequestEntity request) {
-        RequestEntity currentRequest = request;
-        while (true) {
-            Optional<OfferEntity> winningOfferOpt = offerRepository.findAllByRequest(currentRequest)
-                    .stream()
-                    .filter(o -> o.getStatus() != OfferStatus.PENDING && o.getStatus() != OfferStatus.REJECTED)
-                    .findFirst();
-
-            if (winningOfferOpt.isPresent()) {
-                OfferEntity winningOffer = winningOfferOpt.get();
-                if (winningOffer.getStatus() == OfferStatus.RESOLD) {
-                    List<RequestEntity> nextRequests = requestRepository.findBySourceOfferOrderedByCreatedAtDesc(winningOffer);
-                    if (!nextRequests.isEmpty()) {
-                        currentRequest = nextRequests.get(0);
-                    } else {
-                        return winningOfferOpt;
-                    }
-                } else {
-                    return winningOfferOpt;
-                }
-            } else {
-                return Optional.empty();
-            }
-        }
+        containerCapacityService.refresh(originalOffer.getContainer());
+        containerCapacityService.refreshForOffers(allBids);
     }
 }
\ No newline at end of file
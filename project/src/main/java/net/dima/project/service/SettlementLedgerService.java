@@ -0,0 +1,99 @@
+package net.dima.project.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.entity.*;
+import net.dima.project.repository.ContainerCargoRepository;
+import net.dima.project.repository.SettlementLedgerRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 정산 장부(settlement_ledger)를 기록합니다.
+ * 컨테이너가 정산완료되면 실린 화물의 재판매 체인을 거슬러 올라가며, 체인의 각 단계마다
+ * 판매한 포워더(판매), 재판매를 맡긴 포워더(구매), 최초 화주(요청)의 거래내역을 한 행씩 남깁니다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class SettlementLedgerService {
+
+    private final SettlementLedgerRepository settlementLedgerRepository;
+    private final ContainerCargoRepository containerCargoRepository;
+
+    /**
+     * 정산된 컨테이너의 거래내역을 장부에 기록합니다. (이미 기록된 컨테이너는 건너뜀)
+     * 외부 화물만 실려 장부 행이 생기지 않는 컨테이너도 기록 시각을 남겨, 시작 시 보정 대상에서 빠지도록 합니다.
+     */
+    public void recordSettlement(ContainerEntity container) {
+        if (container.getLedgerRecordedAt() != null) {
+            return;
+        }
+        LocalDateTime settledAt = LocalDateTime.now();
+        container.setLedgerRecordedAt(settledAt);
+        List<SettlementLedgerEntity> entries = new ArrayList<>();
+
+        containerCargoRepository.findAllByContainer(container).stream()
+            .filter(cargo -> !cargo.getIsExternal() && cargo.getOffer() != null)
+            .forEach(cargo -> {
+                // offer: 체인의 현재 단계에서 낙찰된 제안 (처음에는 이 컨테이너에 실린 최종 제안)
+                OfferEntity offer = cargo.getOffer();
+                while (offer != null) {
+                    RequestEntity request = offer.getRequest();
+                    UserEntity requester = request.getRequester();
+                    UserEntity forwarder = offer.getForwarder();
+
+                    entries.add(entry(forwarder, SettlementEntryType.SALE, offer, requester, container, settledAt));
+                    if (request.getSourceOffer() != null) {
+                        entries.add(entry(requester, SettlementEntryType.PURCHASE, offer, forwarder, container, settledAt));
+                        offer = request.getSourceOffer();
+                    } else {
+                        entries.add(entry(requester, SettlementEntryType.REQUEST, offer, forwarder, container, settledAt));
+                        offer = null;
+                    }
+                }
+            });
+
+        settlementLedgerRepository.saveAll(entries);
+    }
+
+    /**
+     * 애플리케이션 시작 시, 장부 도입 이전에 정산완료된 컨테이너의 거래내역을 채워 넣습니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingEntries() {
+        List<ContainerEntity> missing = settlementLedgerRepository.findContainersWithoutLedger(ContainerStatus.SETTLED);
+        if (missing.isEmpty()) {
+            return;
+        }
+        log.info("정산 장부 보정 시작: 컨테이너 {}건", missing.size());
+        missing.forEach(this::recordSettlement);
+        log.info("정산 장부 보정 완료");
+    }
+
+    private SettlementLedgerEntity entry(UserEntity owner, SettlementEntryType type, OfferEntity offer,
+                                         UserEntity partner, ContainerEntity container, LocalDateTime settledAt) {
+        RequestEntity request = offer.getRequest();
+        return SettlementLedgerEntity.builder()
+                .userSeq(owner.getUserSeq())
+                .entryType(type)
+                .transactionDate(offer.getCreatedAt())
+                .itemName(request.getCargo().getItemName())
+                .partnerName(partner.getCompanyName())
+                .departurePort(request.getDeparturePort())
+                .arrivalPort(request.getArrivalPort())
+                .price(offer.getPrice())
+                .currency(offer.getCurrency())
+                .offerId(offer.getOfferId())
+                .containerId(container.getContainerId())
+                .settledAt(settledAt)
+                .build();
+    }
+}
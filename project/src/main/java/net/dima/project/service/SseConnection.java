@@ -0,0 +1,162 @@
+package net.dima.project.service;
+
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSE 연결 하나(브라우저 탭 하나)와 그 연결로 보낼 이벤트 대기열
+ * 대기열은 길이가 제한되어 있고, 값이 최신 상태만 의미 있는 이벤트(읽지 않은 개수 등)는
+ * 아직 전송되지 않은 이전 이벤트를 새 값으로 덮어씁니다.
+ */
+class SseConnection {
+
+    enum OfferResult { QUEUED, COALESCED, DROPPED_OLDEST }
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Getter
+    private final long id = SEQUENCE.incrementAndGet();
+    @Getter
+    private final String userId;
+    @Getter
+    private final SseEmitter emitter;
+    @Getter
+    private final Set<String> topics;
+    private final int capacity;
+
+    private final Deque<Message> queue = new ArrayDeque<>();
+    private final Map<String, Message> pendingByEvent = new HashMap<>(); // 덮어쓰기 대상 이벤트의 대기 중인 메시지
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile Throwable closeError; // null 이면 정상 종료
+    @Getter
+    private volatile long lastWriteAt = System.currentTimeMillis(); // 마지막으로 전송에 성공한 시각 (멈춘 연결 감지용)
+
+    SseConnection(String userId, SseEmitter emitter, Set<String> topics, int capacity) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.topics = topics;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 이벤트를 대기열에 넣습니다. 대기열이 가득 차면 가장 오래된 이벤트를 버립니다.
+     * 덮어쓰는 경우 기존 메시지의 id 를 유지해, 클라이언트가 받는 id 순서가 뒤바뀌지 않도록 합니다.
+     */
+    synchronized OfferResult offer(Long eventId, String eventName, String data, boolean coalesce) {
+        if (coalesce) {
+            Message pending = pendingByEvent.get(eventName);
+            if (pending != null) {
+                pending.data = data;
+                return OfferResult.COALESCED;
+            }
+        }
+
+        OfferResult result = OfferResult.QUEUED;
+        if (queue.size() >= capacity) {
+            Message dropped = queue.pollFirst();
+            pendingByEvent.remove(dropped.eventName, dropped);
+            result = OfferResult.DROPPED_OLDEST;
+        }
+        Message message = new Message(eventId, eventName, data);
+        queue.addLast(message);
+        if (coalesce) {
+            pendingByEvent.put(eventName, message);
+        }
+        return result;
+    }
+
+    /**
+     * keepalive 주석(comment)을 넣습니다. 아직 나가지 않은 keepalive 가 있으면 새로 넣지 않습니다.
+     */
+    OfferResult offerKeepAlive() {
+        return offer(null, null, "ping", true);
+    }
+
+    void markWritten() {
+        lastWriteAt = System.currentTimeMillis();
+    }
+
+    synchronized Message poll() {
+        Message message = queue.pollFirst();
+        if (message != null) {
+            pendingByEvent.remove(message.eventName, message);
+        }
+        return message;
+    }
+
+    synchronized int depth() {
+        return queue.size();
+    }
+
+    /**
+     * 전송 작업은 연결당 하나만 실행되도록 합니다. (true 를 받은 쪽이 전송 작업을 시작)
+     */
+    boolean tryStartDrain() {
+        return draining.compareAndSet(false, true);
+    }
+
+    void finishDrain() {
+        draining.set(false);
+    }
+
+    /**
+     * 닫힌 연결로 표시하고 남은 대기열을 비웁니다. 전송 중인 작업은 지금 쓰고 있는 이벤트까지만 보내고 멈춥니다.
+     */
+    synchronized void markClosed(Throwable error) {
+        if (!closed) {
+            closeError = error;
+            closed = true;
+        }
+        queue.clear();
+        pendingByEvent.clear();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    Throwable getCloseError() {
+        return closeError;
+    }
+
+    /**
+     * emitter 종료는 한 번만 하도록 합니다. (true 를 받은 쪽이 종료)
+     */
+    boolean tryComplete() {
+        return completed.compareAndSet(false, true);
+    }
+
+    static class Message {
+        private final Long eventId; // 재연결 시 Last-Event-ID 로 돌아오는 값 (없으면 id 없이 전송)
+        private final String eventName; // null 이면 이벤트가 아닌 keepalive 주석
+        private String data;
+
+        private Message(Long eventId, String eventName, String data) {
+            this.eventId = eventId;
+            this.eventName = eventName;
+            this.data = data;
+        }
+
+        Long eventId() {
+            return eventId;
+        }
+
+        String eventName() {
+            return eventName;
+        }
+
+        String data() { // poll() 이후에는 더 이상 덮어쓰지 않습니다.
+            return data;
+        }
+    }
+}
@@ -1,67 +1,423 @@
 package net.dima.project.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import net.dima.project.dto.NotificationDto;
+import net.dima.project.config.AsyncConfig;
+import net.dima.project.dto.ClusterMessage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+/**
+ * SSE 연결 관리
+ * 한 사용자가 여러 탭(연결)을 가질 수 있으며, 이벤트는 연결별 대기열에 넣기만 하고
+ * 실제 전송은 전용 스레드 풀(sseWriterExecutor)이 처리합니다. 느린 클라이언트가 있어도
+ * 이벤트를 발생시킨 비즈니스 스레드는 기다리지 않습니다.
+ * 모든 이벤트에는 발행 시각 기준 id 를 붙이고(노드가 달라도 비교 가능, 메시지 버스로 같은 id 전달) 사용자별 최근 이벤트를
+ * 보관해, 재연결 시 Last-Event-ID 이후의 이벤트만 다시 보냅니다.
+ * 보관 범위를 벗어났거나 모르는 id 라 재전송할 수 없으면 "resync" 이벤트로 새로고침을 요청합니다. (놓친 이벤트를 조용히 잃지 않도록)
+ */
 @Service
 @Slf4j
 public class SseEmitterService {
 
+    // 구독 토픽: 연결 시 사용자의 권한(role)을 그대로 토픽으로 등록합니다.
+    public static final String TOPIC_FORWARDERS = "ROLE_fwd";
+    public static final String TOPIC_ADMINS = "ROLE_admin";
+
+    // 마지막 값만 의미 있는 이벤트: 대기열에 아직 남아 있으면 새 값으로 덮어씁니다.
+    private static final Set<String> COALESCED_EVENTS = Set.of("unreadCount", "unreadChat", "dashboard_update");
+
     private static final Long DEFAULT_TIMEOUT = 60L * 60 * 1000; // 1시간
-    private final Map<String, SseEmitter> emitters = new ConcurrentHashMap<>();
+
+    // 이벤트 id: 발행 시각(ms) x 1000 + 같은 ms 안의 순번. 재시작 후에도, 다른 노드와도 시각 순서로 비교됩니다.
+    private final AtomicLong eventSequence = new AtomicLong();
+    private final Map<String, SseReplayBuffer> replayBuffers = new ConcurrentHashMap<>(); // key: userId
+
+    private final Map<String, Set<SseConnection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<SseConnection>> subscribersByTopic = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+    private final ClusterMessageBus clusterMessageBus;
+    private final TaskExecutor writerExecutor;
+    private final int queueCapacity;
+    private final int maxConnectionsPerUser;
+    private final int replayBufferSize;
+    private final long replayTtlMillis;
+
+    private final Counter sentCounter;
+    private final Counter droppedCounter;
+    private final Counter coalescedCounter;
+    private final Counter stalledCounter;
+    private final SseHeartbeatWheel heartbeatWheel;
+
+    public SseEmitterService(ObjectMapper objectMapper,
+                             ClusterMessageBus clusterMessageBus,
+                             MeterRegistry meterRegistry,
+                             @Qualifier(AsyncConfig.SSE_WRITER_EXECUTOR) TaskExecutor writerExecutor,
+                             @Value("${sse.queue-capacity:100}") int queueCapacity,
+                             @Value("${sse.max-connections-per-user:5}") int maxConnectionsPerUser,
+                             @Value("${sse.replay.buffer-size:50}") int replayBufferSize,
+                             @Value("${sse.replay.ttl-minutes:10}") long replayTtlMinutes,
+                             @Value("${sse.heartbeat.interval-seconds:15}") long heartbeatIntervalSeconds,
+                             @Value("${sse.heartbeat.slots:15}") int heartbeatSlots,
+                             @Value("${sse.heartbeat.stall-timeout-seconds:45}") long stallTimeoutSeconds) {
+        this.objectMapper = objectMapper;
+        this.clusterMessageBus = clusterMessageBus;
+        this.writerExecutor = writerExecutor;
+        this.queueCapacity = queueCapacity;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.replayBufferSize = replayBufferSize;
+        this.replayTtlMillis = replayTtlMinutes * 60 * 1000;
+
+        this.sentCounter = meterRegistry.counter("sse.events.sent");
+        this.droppedCounter = meterRegistry.counter("sse.events.dropped");
+        this.coalescedCounter = meterRegistry.counter("sse.events.coalesced");
+        this.stalledCounter = meterRegistry.counter("sse.connections.stalled");
+        this.heartbeatWheel = new SseHeartbeatWheel(heartbeatIntervalSeconds * 1000, heartbeatSlots, stallTimeoutSeconds * 1000,
+                this::sendKeepAlive, this::closeStalled);
+        Gauge.builder("sse.connections", connectionsByUser,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .register(meterRegistry);
+        Gauge.builder("sse.queue.depth", connectionsByUser,
+                        map -> map.values().stream().flatMap(Set::stream).mapToInt(SseConnection::depth).sum())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // 다른 노드(또는 이 노드)에서 발행한 SSE 메시지를 이 노드의 연결로 보냅니다.
+        clusterMessageBus.subscribe(ClusterMessageBus.CHANNEL_SSE_USER,
+                message -> deliver(message.getTarget(), message.getEventName(), message.getPayload(), eventIdOf(message)));
+        clusterMessageBus.subscribe(ClusterMessageBus.CHANNEL_SSE_TOPIC,
+                message -> broadcastLocally(message.getTarget(), message.getEventName(), message.getPayload(), eventIdOf(message)));
+        heartbeatWheel.start();
+    }
+
+    @PreDestroy
+    public void stopHeartbeat() {
+        heartbeatWheel.stop();
+    }
 
     /**
-     * 사용자의 SSE 연결을 생성하고 관리 목록에 추가합니다.
+     * 새 SSE 연결을 만들고 연결 목록과 토픽 구독 인덱스에 추가합니다.
+     * lastEventId 가 있으면(브라우저 자동 재연결) 그 이후에 놓친 이벤트를 이 연결로 다시 보냅니다.
+     * 사용자당 연결 수가 상한을 넘으면 가장 오래된 연결을 닫습니다.
      */
-    public SseEmitter createEmitter(String userId) {
-        SseEmitter emitter = new SseEmitter(DEFAULT_TIMEOUT);
-        emitters.put(userId, emitter);
-        log.info("SSE: New emitter created for user: {}", userId);
-
-        emitter.onCompletion(() -> {
-            emitters.remove(userId);
-            log.info("SSE: Emitter completed for user: {}", userId);
-        });
-        emitter.onTimeout(() -> {
-            emitters.remove(userId);
-            log.info("SSE: Emitter timed out for user: {}", userId);
-        });
+    public SseEmitter createEmitter(String userId, Collection<String> topics, Long lastEventId) {
+        SseEmitter emitter = newEmitter();
+        SseConnection connection = new SseConnection(userId, emitter, Set.copyOf(topics), queueCapacity);
+        SseReplayBuffer replayBuffer = replayBufferOf(userId);
+
+        Set<SseConnection> userConnections;
+        // 등록과 재전송을 버퍼 잠금 안에서 처리해, 그 사이 발생한 이벤트가 빠지거나 두 번 가지 않도록 합니다.
+        synchronized (replayBuffer) {
+            userConnections = addTo(connectionsByUser, userId, connection);
+            connection.getTopics().forEach(topic -> addTo(subscribersByTopic, topic, connection));
+            replayBuffer.touch();
+
+            // 연결 확인용 초기 이벤트 전송 (이 연결에만)
+            connection.offer(null, "connected", "SSE connection established.", false);
+            if (lastEventId != null) {
+                replay(connection, replayBuffer, lastEventId);
+            }
+        }
+        log.info("SSE: New connection {} for user: {} (topics: {}, lastEventId: {})",
+                connection.getId(), userId, topics, lastEventId);
+
+        heartbeatWheel.add(connection);
+
+        while (userConnections.size() > maxConnectionsPerUser) {
+            userConnections.stream().min(Comparator.comparingLong(SseConnection::getId)).ifPresent(this::close);
+        }
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
         emitter.onError(e -> {
-            log.error("SSE: Emitter error for user: {}", userId, e);
-            emitters.remove(userId);
+            log.debug("SSE: Connection {} error for user: {}", connection.getId(), userId, e);
+            remove(connection);
         });
 
-        // 연결 확인용 초기 이벤트 전송
-        sendToClient(userId, "connected", "SSE connection established.");
-        
+        scheduleDrain(connection);
         return emitter;
     }
 
+    // 테스트에서 소켓 쓰기를 흉내 내는 emitter 로 바꿀 수 있도록 분리했습니다.
+    SseEmitter newEmitter() {
+        return new SseEmitter(DEFAULT_TIMEOUT);
+    }
+
+    SseHeartbeatWheel getHeartbeatWheel() {
+        return heartbeatWheel;
+    }
+
     /**
-     * 특정 사용자에게 이벤트를 전송합니다.
+     * 특정 사용자의 모든 연결에 이벤트를 전송합니다. (대기열에 넣고 바로 반환)
+     * 다른 노드에 연결된 탭도 받을 수 있도록 메시지 버스를 거쳐 각 노드에서 전달합니다.
      */
     public void sendToClient(String userId, String eventName, Object data) {
-        SseEmitter emitter = emitters.get(userId);
-        if (emitter != null) {
-            try {
-                log.info("SSE: Sending event '{}' to user: {}. Data: {}", eventName, userId, data);
-                emitter.send(SseEmitter.event().name(eventName).data(data));
-            } catch (IOException e) {
-                log.error("SSE: Failed to send event to user {}. Removing emitter.", userId, e);
-                emitters.remove(userId);
+        clusterMessageBus.publish(ClusterMessage.builder()
+                .channel(ClusterMessageBus.CHANNEL_SSE_USER)
+                .target(userId)
+                .eventName(eventName)
+                .payload(serialize(data))
+                .eventId(nextEventId())
+                .build());
+    }
+
+    /**
+     * 토픽을 구독 중인 사용자 전체에게 이벤트를 전송합니다.
+     * DB 조회 없이 구독 인덱스만 순회하며, 데이터는 방송 한 번에 한 번만 JSON 으로 직렬화합니다.
+     */
+    public void broadcast(String topic, String eventName, Object data) {
+        clusterMessageBus.publish(ClusterMessage.builder()
+                .channel(ClusterMessageBus.CHANNEL_SSE_TOPIC)
+                .target(topic)
+                .eventName(eventName)
+                .payload(serialize(data))
+                .eventId(nextEventId())
+                .build());
+    }
+
+    private void broadcastLocally(String topic, String eventName, String payload, long eventId) {
+        Set<SseConnection> subscribers = subscribersByTopic.get(topic);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        Set<String> userIds = subscribers.stream().map(SseConnection::getUserId).collect(Collectors.toSet());
+        log.debug("SSE: Broadcasting event '{}' to topic {} ({} users)", eventName, topic, userIds.size());
+        userIds.forEach(userId -> deliver(userId, eventName, payload, eventId));
+    }
+
+    /**
+     * 이벤트에 id 를 붙여 사용자 보관함에 남기고, 사용자의 모든 연결 대기열에 넣습니다.
+     * 잠시 끊긴 사용자(보관함만 남아 있는 경우)에게 보낸 이벤트도 재연결 시 받을 수 있도록 보관합니다.
+     */
+    private void deliver(String userId, String eventName, String payload, long eventId) {
+        Set<SseConnection> connections = connectionsByUser.get(userId);
+        SseReplayBuffer replayBuffer = (connections != null) ? replayBufferOf(userId) : replayBuffers.get(userId);
+        if (replayBuffer == null) {
+            log.debug("SSE: No connection for user: {}", userId);
+            return;
+        }
+
+        boolean coalesce = COALESCED_EVENTS.contains(eventName);
+        List<SseConnection> targets;
+        synchronized (replayBuffer) {
+            // 마지막 값만 의미 있는 이벤트는 재연결 시 새로 조회하므로 보관하지 않습니다.
+            if (!coalesce) {
+                replayBuffer.add(new SseReplayBuffer.Entry(eventId, eventName, payload, System.currentTimeMillis()));
             }
-        } else {
-            log.warn("SSE: No emitter found for user: {}", userId);
+            Set<SseConnection> current = connectionsByUser.get(userId);
+            targets = (current != null) ? List.copyOf(current) : List.of();
+            targets.forEach(connection -> enqueue(connection, eventId, eventName, payload, coalesce));
+        }
+        targets.forEach(this::scheduleDrain);
+    }
+
+    private void sendKeepAlive(SseConnection connection) {
+        if (connection.offerKeepAlive() == SseConnection.OfferResult.DROPPED_OLDEST) {
+            droppedCounter.increment();
         }
+        scheduleDrain(connection);
     }
-    
-    public Map<String, SseEmitter> getEmitters() {
-        return emitters;
+
+    private void closeStalled(SseConnection connection) {
+        stalledCounter.increment();
+        log.warn("SSE: Connection {} for user {} has not accepted writes for a while. Closing.",
+                connection.getId(), connection.getUserId());
+        close(connection, new IOException("SSE 연결 " + connection.getId() + " 이(가) 응답하지 않아 닫습니다."));
+    }
+
+    private void replay(SseConnection connection, SseReplayBuffer replayBuffer, long lastEventId) {
+        List<SseReplayBuffer.Entry> missed = replayBuffer.since(lastEventId);
+        if (missed == null) {
+            // 놓친 이벤트가 보관 범위 밖(밀려남, 보관함 정리 후 재생성, 재시작, 보관하지 않던 노드)이면 화면 전체를 다시 불러오도록 요청합니다.
+            connection.offer(null, "resync", "replay unavailable", false);
+            return;
+        }
+        missed.forEach(entry -> enqueue(connection, entry.id(), entry.eventName(), entry.data(), false));
+        log.info("SSE: Replayed {} events to user {} after id {}", missed.size(), connection.getUserId(), lastEventId);
+    }
+
+    private void enqueue(SseConnection connection, Long eventId, String eventName, String payload, boolean coalesce) {
+        switch (connection.offer(eventId, eventName, payload, coalesce)) {
+            case COALESCED -> coalescedCounter.increment();
+            case DROPPED_OLDEST -> {
+                droppedCounter.increment();
+                log.warn("SSE: Queue full for user {} (connection {}). Dropped oldest event.",
+                        connection.getUserId(), connection.getId());
+            }
+            case QUEUED -> { }
+        }
+    }
+
+    private SseReplayBuffer replayBufferOf(String userId) {
+        // 새 보관함은 지금 이후의 이벤트만 가지므로, 그 전의 id 로 재연결하면 resync 가 나갑니다.
+        return replayBuffers.computeIfAbsent(userId, id -> new SseReplayBuffer(replayBufferSize, nextEventId()));
+    }
+
+    /**
+     * 새 이벤트 id 를 발급합니다. 시각 기준이라 재시작 전이나 다른 노드의 id 와도 순서가 맞고, 이 노드 안에서는 항상 증가합니다.
+     */
+    private long nextEventId() {
+        return eventSequence.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis() * 1000));
+    }
+
+    // 이전 버전 노드가 id 없이 보낸 메시지는 이 노드에서 발급합니다.
+    private long eventIdOf(ClusterMessage message) {
+        return message.getEventId() != null ? message.getEventId() : nextEventId();
+    }
+
+    /**
+     * 보관 기간이 지난 이벤트와, 연결이 끊긴 채 보관 기간이 지난 사용자의 보관함을 정리합니다.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void expireReplayBuffers() {
+        long now = System.currentTimeMillis();
+        replayBuffers.entrySet().removeIf(entry ->
+                entry.getValue().expire(now, replayTtlMillis) && !connectionsByUser.containsKey(entry.getKey()));
+    }
+
+    private void scheduleDrain(SseConnection connection) {
+        if (!connection.tryStartDrain()) {
+            return; // 이미 전송 중인 작업이 이어서 처리합니다.
+        }
+        try {
+            writerExecutor.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            // 대기열은 그대로 두고, 다음 이벤트가 들어올 때 다시 전송을 시도합니다.
+            connection.finishDrain();
+            log.warn("SSE: Writer pool is saturated. Delaying delivery to user {}", connection.getUserId());
+        }
+    }
+
+    private void drain(SseConnection connection) {
+        try {
+            SseConnection.Message message;
+            while (!connection.isClosed() && (message = connection.poll()) != null) {
+                try {
+                    if (message.eventName() == null) {
+                        // keepalive 는 로깅/직렬화 없이 주석 한 줄만 씁니다.
+                        connection.getEmitter().send(SseEmitter.event().comment(message.data()));
+                    } else {
+                        SseEmitter.SseEventBuilder event = SseEmitter.event().name(message.eventName()).data(message.data());
+                        if (message.eventId() != null) {
+                            event.id(String.valueOf(message.eventId()));
+                        }
+                        connection.getEmitter().send(event);
+                        sentCounter.increment();
+                    }
+                    connection.markWritten();
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("SSE: Failed to send to user {} (connection {}). Closing.", connection.getUserId(), connection.getId(), e);
+                    close(connection);
+                }
+            }
+        } finally {
+            connection.finishDrain();
+        }
+        // 전송 중에 닫힌 연결은 다른 스레드 대신 여기서 emitter 를 끝냅니다.
+        if (connection.isClosed()) {
+            completeIfIdle(connection);
+            return;
+        }
+        // 전송을 마치는 사이에 들어온 이벤트가 있으면 이어서 보냅니다.
+        if (connection.depth() > 0) {
+            scheduleDrain(connection);
+        }
+    }
+
+    private String serialize(Object data) {
+        if (data instanceof String text) {
+            return text;
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("SSE 이벤트 데이터를 직렬화할 수 없습니다.", e);
+        }
+    }
+
+    private void close(SseConnection connection) {
+        close(connection, null);
+    }
+
+    /**
+     * 연결을 목록에서 빼고 대기열을 비운 뒤 emitter 를 끝냅니다. (error 가 있으면 오류로 종료)
+     * 전송 중인 작업이 있으면 소켓 쓰기에 묶여 있을 수 있으므로 emitter 잠금을 기다리지 않고,
+     * 그 작업이 지금 쓰는 이벤트를 마치는 즉시 종료하도록 넘깁니다.
+     */
+    private void close(SseConnection connection, Throwable error) {
+        remove(connection);
+        connection.markClosed(error);
+        completeIfIdle(connection);
+    }
+
+    // 전송 작업 권한을 얻은 쪽(쉬고 있는 연결이면 호출한 스레드, 전송 중이면 그 작업)이 emitter 를 한 번만 끝냅니다.
+    private void completeIfIdle(SseConnection connection) {
+        if (!connection.tryStartDrain()) {
+            return;
+        }
+        try {
+            if (connection.tryComplete()) {
+                Throwable error = connection.getCloseError();
+                if (error != null) {
+                    connection.getEmitter().completeWithError(error);
+                } else {
+                    connection.getEmitter().complete();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("SSE: Connection {} already closed", connection.getId(), e);
+        } finally {
+            connection.finishDrain();
+        }
+    }
+
+    private void remove(SseConnection connection) {
+        if (removeFrom(connectionsByUser, connection.getUserId(), connection)) {
+            heartbeatWheel.remove(connection);
+            connection.getTopics().forEach(topic -> removeFrom(subscribersByTopic, topic, connection));
+            log.info("SSE: Connection {} closed for user: {}", connection.getId(), connection.getUserId());
+        }
+    }
+
+    // 빈 집합을 지우는 쪽과 새 연결을 넣는 쪽이 엇갈리지 않도록 compute 안에서 처리합니다.
+    private static Set<SseConnection> addTo(Map<String, Set<SseConnection>> index, String key, SseConnection connection) {
+        return index.compute(key, (k, connections) -> {
+            Set<SseConnection> result = connections != null ? connections : ConcurrentHashMap.newKeySet();
+            result.add(connection);
+            return result;
+        });
+    }
+
+    private static boolean removeFrom(Map<String, Set<SseConnection>> index, String key, SseConnection connection) {
+        boolean[] removed = {false};
+        index.computeIfPresent(key, (k, connections) -> {
+            removed[0] = connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+        return removed[0];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package net.dima.project.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * SSE keepalive 타이밍 휠 (hashed wheel)
+ * 연결을 interval / slotCount 간격의 슬롯에 나눠 담고, 틱마다 한 슬롯의 연결만 처리합니다.
+ * 모든 연결을 한 번에 순회하지 않으므로 연결 수가 많아도 틱 하나의 작업량은 일정하게 유지되며,
+ * 실제 전송은 연결별 대기열에 넣기만 하므로 느린 소켓이 다른 연결의 keepalive 를 막지 않습니다.
+ */
+@Slf4j
+class SseHeartbeatWheel {
+
+    private final List<Set<SseConnection>> slots;
+    private final long tickMillis;
+    private final long stallTimeoutMillis;
+    private final Consumer<SseConnection> keepAlive;
+    private final Consumer<SseConnection> onStalled;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int cursor;
+
+    SseHeartbeatWheel(long intervalMillis, int slotCount, long stallTimeoutMillis,
+                      Consumer<SseConnection> keepAlive, Consumer<SseConnection> onStalled) {
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(ConcurrentHashMap.newKeySet());
+        }
+        this.tickMillis = Math.max(1, intervalMillis / slotCount);
+        this.stallTimeoutMillis = stallTimeoutMillis;
+        this.keepAlive = keepAlive;
+        this.onStalled = onStalled;
+    }
+
+    void start() {
+        scheduler.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void add(SseConnection connection) {
+        slotOf(connection).add(connection);
+    }
+
+    void remove(SseConnection connection) {
+        slotOf(connection).remove(connection);
+    }
+
+    private Set<SseConnection> slotOf(SseConnection connection) {
+        return slots.get((int) (connection.getId() % slots.size()));
+    }
+
+    /**
+     * 현재 슬롯의 연결에 keepalive 를 넣고, 대기열이 오래 비워지지 않은 연결은 끊긴 것으로 보고 정리합니다.
+     */
+    void tick() {
+        Set<SseConnection> slot = slots.get(cursor);
+        cursor = (cursor + 1) % slots.size();
+
+        long now = System.currentTimeMillis();
+        for (SseConnection connection : slot) {
+            try {
+                if (connection.depth() > 0 && now - connection.getLastWriteAt() > stallTimeoutMillis) {
+                    onStalled.accept(connection);
+                } else {
+                    keepAlive.accept(connection);
+                }
+            } catch (RuntimeException e) {
+                // 예외가 나도 스케줄이 멈추지 않도록 연결 단위로 처리합니다.
+                log.warn("SSE: Heartbeat failed for connection {}", connection.getId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package net.dima.project.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 사용자별 최근 SSE 이벤트 보관함 (길이 제한 링 버퍼)
+ * 재연결 시 브라우저가 보내는 Last-Event-ID 이후의 이벤트만 다시 보내는 데 사용합니다.
+ * 이벤트 발급/보관과 연결 등록은 이 객체를 잠근 상태에서 처리해 재전송과 새 이벤트가 겹치지 않게 합니다.
+ * 보관함은 만들어진 시점(floorEventId) 이후의 이벤트만 알고 있으므로, 그보다 오래된 id 로 재연결하면
+ * (보관함이 정리된 뒤 다시 만들어졌거나, 이 사용자를 보관하지 않던 다른 노드로 재연결한 경우) 재전송할 수 없다고 답합니다.
+ */
+class SseReplayBuffer {
+
+    record Entry(long id, String eventName, String data, long createdAt) {
+    }
+
+    private final int capacity;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long evictedUpTo;        // 이 id 까지는 보관하지 않음 (생성 시점 또는 버퍼에서 밀려난 이벤트 중 가장 큰 id)
+    private long lastActivityAt = System.currentTimeMillis();
+
+    SseReplayBuffer(int capacity, long floorEventId) {
+        this.capacity = capacity;
+        this.evictedUpTo = floorEventId;
+    }
+
+    synchronized void add(Entry entry) {
+        if (entries.size() >= capacity) {
+            evict();
+        }
+        entries.addLast(entry);
+        lastActivityAt = entry.createdAt();
+    }
+
+    /**
+     * lastEventId 이후의 이벤트를 돌려줍니다. 필요한 이벤트가 보관 범위 밖이면 null 을 돌려줍니다.
+     * 여러 노드가 발급한 id 는 도착 순서와 조금 어긋날 수 있으므로, 보관 중인 id 면 그 뒤에 도착한 이벤트를 모두 돌려줍니다.
+     */
+    synchronized List<Entry> since(long lastEventId) {
+        if (lastEventId < evictedUpTo) {
+            return null;
+        }
+        List<Entry> all = List.copyOf(entries);
+        for (int i = 0; i < all.size(); i++) {
+            if (all.get(i).id() == lastEventId) {
+                return all.subList(i + 1, all.size());
+            }
+        }
+        return all.stream().filter(entry -> entry.id() > lastEventId).toList();
+    }
+
+    /**
+     * 오래된 이벤트를 정리합니다.
+     * @return 남은 이벤트가 없고 마지막 활동 이후 ttl 이 지났으면 true (버퍼 자체를 지워도 됨)
+     */
+    synchronized boolean expire(long now, long ttlMillis) {
+        while (!entries.isEmpty() && now - entries.peekFirst().createdAt() > ttlMillis) {
+            evict();
+        }
+        return entries.isEmpty() && now - lastActivityAt > ttlMillis;
+    }
+
+    private void evict() {
+        evictedUpTo = Math.max(evictedUpTo, entries.pollFirst().id());
+    }
+
+    synchronized void touch() {
+        lastActivityAt = System.currentTimeMillis();
+    }
+}
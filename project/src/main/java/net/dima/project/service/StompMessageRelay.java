@@ -0,0 +1,69 @@
+package net.dima.project.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import net.dima.project.config.WebSocketConfig;
+import net.dima.project.dto.ClusterMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+/**
+ * STOMP 토픽 메시지를 모든 노드로 전달합니다.
+ * simple 브로커는 자기 노드에 붙은 구독자에게만 보내므로, 메시지를 버스로 보내고
+ * 모든 노드가 받아서 각자의 브로커로 다시 보냅니다.
+ * 외부 브로커(relay)를 쓰면 브로커가 모든 노드의 구독자에게 전달하므로 버스를 거치지 않고 바로 보냅니다.
+ */
+@Service
+@Slf4j
+public class StompMessageRelay {
+
+    private final ClusterMessageBus clusterMessageBus;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean externalBroker;
+
+    public StompMessageRelay(ClusterMessageBus clusterMessageBus,
+                             SimpMessageSendingOperations messagingTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${chat.broker.mode:simple}") String brokerMode) {
+        this.clusterMessageBus = clusterMessageBus;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.externalBroker = WebSocketConfig.BROKER_MODE_RELAY.equals(brokerMode);
+    }
+
+    @PostConstruct
+    public void registerHandler() {
+        if (!externalBroker) {
+            clusterMessageBus.subscribe(ClusterMessageBus.CHANNEL_STOMP, this::sendLocally);
+        }
+    }
+
+    public void convertAndSend(String destination, Object payload) {
+        if (externalBroker) {
+            messagingTemplate.convertAndSend(destination, payload);
+            return;
+        }
+        try {
+            clusterMessageBus.publish(ClusterMessage.builder()
+                    .channel(ClusterMessageBus.CHANNEL_STOMP)
+                    .target(destination)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("STOMP 메시지를 직렬화할 수 없습니다.", e);
+        }
+    }
+
+    private void sendLocally(ClusterMessage message) {
+        try {
+            // JSON 트리로 보내 기존과 같은 application/json 메시지로 전달합니다.
+            messagingTemplate.convertAndSend(message.getTarget(), objectMapper.readTree(message.getPayload()));
+        } catch (JsonProcessingException e) {
+            log.error("Cluster: Invalid STOMP payload for {}", message.getTarget(), e);
+        }
+    }
+}
@@ -1,210 +1,228 @@
-// [✅ /service/TransactionHistoryService.java 파일 전체를 이 최종 코드로 교체해주세요]
 package net.dima.project.service;
 
 import lombok.RequiredArgsConstructor;
 import net.dima.project.dto.TransactionHistoryDto;
-import net.dima.project.entity.*;
-import net.dima.project.repository.OfferRepository;
-import net.dima.project.repository.RequestRepository;
+import net.dima.project.entity.SettlementEntryType;
+import net.dima.project.entity.SettlementLedgerEntity;
+import net.dima.project.entity.UserEntity;
+import net.dima.project.repository.SettlementLedgerRepository;
 import net.dima.project.repository.UserRepository;
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.Predicate;
-import java.util.ArrayList;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.Function;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * 거래내역 조회 (정산 장부 settlement_ledger 기준)
+ * 정산완료된 거래만 장부에 기록되므로, 조회는 사용자/유형/거래일 인덱스 범위 조회와 DB 페이징만으로 처리합니다.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class TransactionHistoryService {
 
+    private static final Sort LATEST_FIRST = Sort.by(Sort.Direction.DESC, "transactionDate")
+            .and(Sort.by(Sort.Direction.DESC, "ledgerId"));
+    // 날짜 조건이 없을 때도 같은 인덱스 범위 조회가 되도록 쓰는 경계값
+    private static final LocalDateTime MIN_DATE = LocalDate.of(1970, 1, 1).atStartOfDay();
+    private static final LocalDateTime MAX_DATE = LocalDate.of(9999, 12, 31).atStartOfDay();
+    private static final String SETTLED_STATUS = "정산완료";
+    private static final List<String> EXPORT_HEADERS = List.of("거래일", "거래 유형", "품명", "출발항", "도착항", "거래 상대방", "거래 금액", "통화");
+    private static final DateTimeFormatter EXPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int XLSX_MAX_DATA_ROWS = 1_048_575; // 엑셀 시트 최대 행 수 - 헤더 1행
+
     private final UserRepository userRepository;
-    private final RequestRepository requestRepository;
-    private final OfferRepository offerRepository;
+    private final SettlementLedgerRepository settlementLedgerRepository;
 
     public List<TransactionHistoryDto> getTransactionHistory(String currentUserId, LocalDate startDate, LocalDate endDate, String keyword) {
-        List<TransactionHistoryDto> sales = getSalesHistory(currentUserId, startDate, endDate, keyword);
-        List<TransactionHistoryDto> purchases = getPurchaseHistory(currentUserId, startDate, endDate, keyword);
-
-        return Stream.concat(sales.stream(), purchases.stream())
-                .sorted(Comparator.comparing(TransactionHistoryDto::getTransactionDate).reversed())
-                .collect(Collectors.toList());
+        return findAll(currentUserId, Set.of(SettlementEntryType.SALE, SettlementEntryType.PURCHASE), startDate, endDate, keyword);
     }
 
-    // [✅ 핵심 수정] '판매' 내역 조회 로직을 재판매 체인을 끝까지 추적하도록 변경합니다.
+    // '판매' 내역: 내가 낙찰받은 거래 중 (재판매했다면 체인 끝의) 최종 운송 컨테이너가 정산완료된 건
     public List<TransactionHistoryDto> getSalesHistory(String currentUserId, LocalDate startDate, LocalDate endDate, String keyword) {
-        UserEntity user = userRepository.findByUserId(currentUserId); // 현재 사용자 (포워더 B)
+        return findAll(currentUserId, Set.of(SettlementEntryType.SALE), startDate, endDate, keyword);
+    }
 
-        // 내가(B)가 다른 사람에게 한 제안 중, 최종적으로 성공한(거절/보류 제외) 모든 제안을 찾습니다.
-        List<OfferStatus> successfulStatuses = List.of(OfferStatus.ACCEPTED, OfferStatus.CONFIRMED, OfferStatus.SHIPPED, OfferStatus.COMPLETED, OfferStatus.RESOLD);
-        List<OfferEntity> mySuccessfulOffers = offerRepository.findByForwarderAndStatusIn(user, successfulStatuses);
+    // '구매' 내역: 내가 올린 재판매 요청을 다른 포워더가 낙찰받아 정산완료된 건
+    public List<TransactionHistoryDto> getPurchaseHistory(String currentUserId, LocalDate startDate, LocalDate endDate, String keyword) {
+        return findAll(currentUserId, Set.of(SettlementEntryType.PURCHASE), startDate, endDate, keyword);
+    }
 
-        List<TransactionHistoryDto> salesHistory = new ArrayList<>();
+    // 화주 이력: 화주가 올린 최초 요청 중 정산완료된 건 (정렬은 항상 거래일 최신순)
+    public Page<TransactionHistoryDto> getShipperHistory(String currentUserId, LocalDate startDate, LocalDate endDate, String keyword, Pageable pageable) {
+        UserEntity shipper = userRepository.findByUserId(currentUserId);
+        Pageable latestFirst = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), LATEST_FIRST);
+        return settlementLedgerRepository.search(shipper.getUserSeq(), Set.of(SettlementEntryType.REQUEST),
+                        fromBound(startDate), toBound(endDate), keywordPattern(keyword), latestFirst)
+                .map(this::toDto);
+    }
 
-        for (OfferEntity myOffer : mySuccessfulOffers) { // myOffer는 B가 A(또는 다른 포워더)에게 한 제안
-            Optional<OfferEntity> finalOfferInChainOpt;
+    private List<TransactionHistoryDto> findAll(String currentUserId, Set<SettlementEntryType> types,
+                                                LocalDate startDate, LocalDate endDate, String keyword) {
+        UserEntity user = userRepository.findByUserId(currentUserId);
+        return settlementLedgerRepository.search(user.getUserSeq(), types,
+                        fromBound(startDate), toBound(endDate), keywordPattern(keyword), LATEST_FIRST)
+                .stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
 
-            // 만약 내 제안의 상태가 'RESOLD'라면, 재판매 체인의 최종 승자를 찾아야 합니다.
-            if (myOffer.getStatus() == OfferStatus.RESOLD) {
-                List<RequestEntity> resaleRequests = requestRepository.findBySourceOfferOrderedByCreatedAtDesc(myOffer);
-                if (resaleRequests.isEmpty()) {
-                    continue; // 재판매 요청이 없으면 건너뜀
-                }
-                // 내가 만든 재판매 요청으로부터 시작하여 최종 운송 포워더(C)를 찾습니다.
-                finalOfferInChainOpt = findFinalOffer(resaleRequests.get(0));
+    /**
+     * 포워더 거래내역을 CSV 또는 XLSX 로 내보냅니다.
+     * 장부를 한 행씩 읽으면서 바로 out 에 쓰므로, 기간이 길어도 전체 목록을 메모리에 올리지 않습니다.
+     * @param filterType all, sale, purchase (거래내역 화면의 필터와 같은 값)
+     */
+    public void exportTransactionHistory(String currentUserId, String filterType, LocalDate startDate, LocalDate endDate,
+                                         String keyword, ExportFormat format, OutputStream out) throws IOException {
+        UserEntity user = userRepository.findByUserId(currentUserId);
+        Set<SettlementEntryType> types = switch (filterType == null ? "all" : filterType) {
+            case "sale" -> Set.of(SettlementEntryType.SALE);
+            case "purchase" -> Set.of(SettlementEntryType.PURCHASE);
+            default -> Set.of(SettlementEntryType.SALE, SettlementEntryType.PURCHASE);
+        };
+
+        try (Stream<Object[]> rows = settlementLedgerRepository.streamForExport(user.getUserSeq(), types,
+                fromBound(startDate), toBound(endDate), keywordPattern(keyword))) {
+            if (format == ExportFormat.XLSX) {
+                writeXlsx(rows, out);
             } else {
-                // 'RESOLD'가 아니라면, 내가 직접 운송한 것이므로 내 제안이 최종 제안입니다.
-                finalOfferInChainOpt = Optional.of(myOffer);
+                writeCsv(rows, out);
             }
+        }
+    }
 
-            // 최종 운송을 담당한 컨테이너가 '정산완료' 상태인지 확인합니다.
-            if (finalOfferInChainOpt.isPresent() && finalOfferInChainOpt.get().getContainer().getStatus() == ContainerStatus.SETTLED) {
-                // 정산이 완료되었다면, 이 거래를 나의 '판매' 내역으로 기록합니다.
-                TransactionHistoryDto dto = TransactionHistoryDto.builder()
-                        .transactionDate(myOffer.getCreatedAt()) // 거래일은 내가 원 화주(A)와 계약한 날짜
-                        .type("판매")
-                        .itemName(myOffer.getRequest().getCargo().getItemName())
-                        .departurePort(myOffer.getRequest().getDeparturePort())
-                        .arrivalPort(myOffer.getRequest().getArrivalPort())
-                        .partnerName(myOffer.getRequest().getRequester().getCompanyName()) // 거래 상대방은 원 화주(A)
-                        .price(myOffer.getPrice()) // 가격은 내가 A에게 받은 금액
-                        .currency(myOffer.getCurrency())
-                        .status("정산완료")
-                        .build();
-                salesHistory.add(dto);
+    public enum ExportFormat {
+        CSV, XLSX
+    }
+
+    private void writeCsv(Stream<Object[]> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF'); // 엑셀에서 한글이 깨지지 않도록 BOM 추가
+        writer.write(String.join(",", EXPORT_HEADERS));
+        writer.write("\r\n");
+
+        Iterator<Object[]> it = rows.iterator();
+        while (it.hasNext()) {
+            Object[] row = it.next();
+            writer.write(((LocalDateTime) row[0]).format(EXPORT_DATE_FORMAT));
+            writer.write(',');
+            writer.write(((SettlementEntryType) row[1]).getLabel());
+            for (int i = 2; i <= 5; i++) {
+                writer.write(',');
+                writer.write(csvText((String) row[i]));
             }
+            writer.write(',');
+            writer.write(((BigDecimal) row[6]).toPlainString());
+            writer.write(',');
+            writer.write(csvText((String) row[7]));
+            writer.write("\r\n");
         }
-
-        // 필터링 로직은 그대로 유지합니다.
-        return salesHistory.stream()
-            .filter(dto -> (startDate == null || !dto.getTransactionDate().toLocalDate().isBefore(startDate)))
-            .filter(dto -> (endDate == null || !dto.getTransactionDate().toLocalDate().isAfter(endDate)))
-            .filter(dto -> (keyword == null || keyword.isBlank() ||
-                    (dto.getItemName() != null && dto.getItemName().toLowerCase().contains(keyword.toLowerCase())) ||
-                    (dto.getPartnerName() != null && dto.getPartnerName().toLowerCase().contains(keyword.toLowerCase()))))
-            .collect(Collectors.toList());
+        writer.flush();
     }
 
-    // '구매' 내역 조회 로직 (기존과 동일, 재판매 건을 조회)
-    public List<TransactionHistoryDto> getPurchaseHistory(String currentUserId, LocalDate startDate, LocalDate endDate, String keyword) {
-        UserEntity user = userRepository.findByUserId(currentUserId);
-        List<RequestEntity> myResaleRequests = requestRepository.findByRequesterAndStatusAndSourceOfferIsNotNull(user, RequestStatus.CLOSED);
+    // 쉼표/따옴표/줄바꿈은 따옴표로 감싸고, 엑셀이 수식으로 해석하는 값(=, +, -, @ 로 시작)은 ' 를 붙입니다.
+    private String csvText(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String text = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
 
-        Map<Long, OfferEntity> winningOffersMap = offerRepository.findWinningOffersForRequests(myResaleRequests).stream()
-                .collect(Collectors.toMap(offer -> offer.getRequest().getRequestId(), Function.identity()));
+    private void writeXlsx(Stream<Object[]> rows, OutputStream out) throws IOException {
+        // 메모리에는 최근 100행만 두고 나머지는 임시 파일로 내려보내는 스트리밍 워크북
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            workbook.setCompressTempFiles(true);
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+            Sheet sheet = null;
+            int rowIndex = 0;
+            int sheetCount = 0;
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                if (sheet == null || rowIndex > XLSX_MAX_DATA_ROWS) {
+                    // 한 시트의 최대 행 수를 넘으면 다음 시트에 이어서 씁니다.
+                    sheet = createExportSheet(workbook, ++sheetCount);
+                    rowIndex = 1;
+                }
+                Object[] values = it.next();
+                Row row = sheet.createRow(rowIndex++);
+                Cell dateCell = row.createCell(0);
+                dateCell.setCellValue((LocalDateTime) values[0]);
+                dateCell.setCellStyle(dateStyle);
+                row.createCell(1).setCellValue(((SettlementEntryType) values[1]).getLabel());
+                for (int i = 2; i <= 5; i++) {
+                    row.createCell(i).setCellValue((String) values[i]);
+                }
+                row.createCell(6).setCellValue(((BigDecimal) values[6]).doubleValue());
+                row.createCell(7).setCellValue((String) values[7]);
+            }
+            if (sheet == null) {
+                createExportSheet(workbook, 1);
+            }
+            workbook.write(out);
+        }
+    }
 
-        return myResaleRequests.stream().map(req -> {
-            OfferEntity winningOffer = winningOffersMap.get(req.getRequestId());
+    private Sheet createExportSheet(SXSSFWorkbook workbook, int sheetNumber) {
+        Sheet sheet = workbook.createSheet(sheetNumber == 1 ? "거래내역" : "거래내역 " + sheetNumber);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < EXPORT_HEADERS.size(); i++) {
+            header.createCell(i).setCellValue(EXPORT_HEADERS.get(i));
+        }
+        return sheet;
+    }
 
-            if (winningOffer == null || winningOffer.getContainer().getStatus() != ContainerStatus.SETTLED) {
-                return null;
-            }
-            
-            return TransactionHistoryDto.builder()
-                    .transactionDate(winningOffer.getCreatedAt())
-                    .type("구매")
-                    .itemName(req.getCargo().getItemName())
-                    .departurePort(req.getDeparturePort())
-                    .arrivalPort(req.getArrivalPort())
-                    .partnerName(winningOffer.getForwarder().getCompanyName())
-                    .price(winningOffer.getPrice())
-                    .currency(winningOffer.getCurrency())
-                    .status("정산완료")
-                    .build();
-        })
-        .filter(dto -> dto != null)
-        .filter(dto -> (startDate == null || !dto.getTransactionDate().toLocalDate().isBefore(startDate)))
-        .filter(dto -> (endDate == null || !dto.getTransactionDate().toLocalDate().isAfter(endDate)))
-        .filter(dto -> (keyword == null || keyword.isBlank() ||
-                (dto.getItemName() != null && dto.getItemName().toLowerCase().contains(keyword.toLowerCase())) ||
-                (dto.getPartnerName() != null && dto.getPartnerName().toLowerCase().contains(keyword.toLowerCase()))))
-        .collect(Collectors.toList());
+    private LocalDateTime fromBound(LocalDate startDate) {
+        return startDate != null ? startDate.atStartOfDay() : MIN_DATE;
     }
-    
-    // (이하 화주 이력 조회 및 재판매 체인 추적 로직은 기존과 동일)
-    public Page<TransactionHistoryDto> getShipperHistory(String currentUserId, LocalDate startDate, LocalDate endDate, String keyword, Pageable pageable) {
-        UserEntity shipper = userRepository.findByUserId(currentUserId);
-        List<RequestEntity> closedRequests = requestRepository.findByRequesterAndSourceOfferIsNullAndStatus(shipper, RequestStatus.CLOSED);
-        
-        Map<Long, OfferEntity> winningOffersMap = offerRepository.findWinningOffersForRequests(closedRequests).stream()
-                .collect(Collectors.toMap(offer -> offer.getRequest().getRequestId(), Function.identity(), (o1, o2) -> o1));
-
-        Map<Long, Optional<OfferEntity>> finalOffersMap = closedRequests.stream()
-                .collect(Collectors.toMap(RequestEntity::getRequestId, this::findFinalOffer));
-
-        List<TransactionHistoryDto> historyList = closedRequests.stream()
-                .map(req -> {
-                    Optional<OfferEntity> directWinningOfferOpt = Optional.ofNullable(winningOffersMap.get(req.getRequestId()));
-                    Optional<OfferEntity> finalOfferOpt = finalOffersMap.getOrDefault(req.getRequestId(), Optional.empty());
-
-                    if (directWinningOfferOpt.isPresent() && finalOfferOpt.isPresent() && finalOfferOpt.get().getContainer().getStatus() == ContainerStatus.SETTLED) {
-                        OfferEntity directWinningOffer = directWinningOfferOpt.get();
-                        
-                        return TransactionHistoryDto.builder()
-                                .transactionDate(directWinningOffer.getCreatedAt())
-                                .type("요청")
-                                .itemName(req.getCargo().getItemName())
-                                .departurePort(req.getDeparturePort())
-                                .arrivalPort(req.getArrivalPort())
-                                .partnerName(directWinningOffer.getForwarder().getCompanyName())
-                                .price(directWinningOffer.getPrice())
-                                .currency(directWinningOffer.getCurrency())
-                                .status("정산완료")
-                                .build();
-                    }
-                    return null;
-                })
-                .filter(dto -> dto != null)
-                .filter(dto -> (startDate == null || !dto.getTransactionDate().toLocalDate().isBefore(startDate)))
-                .filter(dto -> (endDate == null || !dto.getTransactionDate().toLocalDate().isAfter(endDate)))
-                .filter(dto -> (keyword == null || keyword.isBlank() ||
-                        (dto.getItemName() != null && dto.getItemName().toLowerCase().contains(keyword.toLowerCase())) ||
-                        (dto.getPartnerName() != null && dto.getPartnerName().toLowerCase().contains(keyword.toLowerCase()))))
-                .sorted(Comparator.comparing(TransactionHistoryDto::getTransactionDate).reversed())
-                .collect(Collectors.toList());
 
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), historyList.size());
-        List<TransactionHistoryDto> pageContent = (start > end) ? List.of() : historyList.subList(start, end);
+    private LocalDateTime toBound(LocalDate endDate) {
+        return endDate != null ? endDate.plusDays(1).atStartOfDay() : MAX_DATE;
+    }
 
-        return new PageImpl<>(pageContent, pageable, historyList.size());
+    private String keywordPattern(String keyword) {
+        return (keyword == null || keyword.isBlank()) ? null : "%" + keyword.toLowerCase() + "%";
     }
 
-    private Optional<OfferEntity> findFinalOffer(RequestEntity request) {
-        RequestEntity currentRequest = request;
-        while (true) {
-            Optional<OfferEntity> winningOfferOpt = offerRepository.findAllByRequest(currentRequest).stream()
-                    .filter(o -> o.getStatus() != OfferStatus.PENDING && o.getStatus() != OfferStatus.REJECTED)
-                    .findFirst();
-
-            if (winningOfferOpt.isPresent()) {
-                OfferEntity winningOffer = winningOfferOpt.get();
-                if (winningOffer.getStatus() == OfferStatus.RESOLD) {
-                    List<RequestEntity> nextRequests = requestRepository.findBySourceOfferOrderedByCreatedAtDesc(winningOffer);
-                    if (!nextRequests.isEmpty()) {
-                        currentRequest = nextRequests.get(0);
-                    } else {
-                        return winningOfferOpt;
-                    }
-                } else {
-                    return winningOfferOpt;
-                }
-            } else {
-                return Optional.empty();
-            }
-        }
+    private TransactionHistoryDto toDto(SettlementLedgerEntity entry) {
+        return TransactionHistoryDto.builder()
+                .transactionDate(entry.getTransactionDate())
+                .type(entry.getEntryType().getLabel())
+                .itemName(entry.getItemName())
+                .departurePort(entry.getDeparturePort())
+                .arrivalPort(entry.getArrivalPort())
+                .partnerName(entry.getPartnerName())
+                .price(entry.getPrice())
+                .currency(entry.getCurrency())
+                .status(SETTLED_STATUS)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package net.dima.project.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import net.dima.project.repository.ChatMessageRepository;
+import net.dima.project.repository.NotificationRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * 읽지 않은 알림/채팅 개수 캐시
+ * 알림 저장, 읽음 처리, 채팅 전송처럼 개수가 바뀌는 쓰기 작업이 커밋된 뒤 값을 직접 증감하고,
+ * 캐시에 없는 사용자(또는 오래된 값)는 조회 시점에 DB에서 한 번만 다시 계산합니다.
+ * 서버 여러 대 사이의 오차는 일정 시간이 지나면 DB 값으로 다시 맞춰집니다.
+ * 항목은 기록 후 EXPIRE_MINUTES 가 지나면 만료되고, 최대 개수를 넘으면 오래 쓰이지 않은 항목부터 제거됩니다.
+ */
+@Service
+@RequiredArgsConstructor
+public class UnreadCounterService {
+
+    private static final long EXPIRE_MINUTES = 10; // 10분마다 DB 값으로 재계산
+    private static final long MAX_NOTIFICATION_ENTRIES = 100_000;
+    private static final long MAX_CHAT_ENTRIES = 200_000;
+
+    private final NotificationRepository notificationRepository;
+    private final ChatMessageRepository chatMessageRepository;
+
+    private final Cache<String, Counter> notificationCounts = newCounterCache(MAX_NOTIFICATION_ENTRIES); // key: userId
+    private final Cache<ChatKey, Counter> chatCounts = newCounterCache(MAX_CHAT_ENTRIES);                // key: (채팅방, 사용자)
+
+    // ===== 알림 =====
+
+    public long getUnreadNotificationCount(String userId) {
+        return valueOf(notificationCounts, userId,
+                () -> notificationRepository.countUnreadByReceiverUserId(userId));
+    }
+
+    /**
+     * 새 알림이 커밋된 뒤 호출합니다. 캐시에 있는 사용자만 증가시키고,
+     * 없는 사용자는 (이미 커밋된 알림까지 포함해) DB에서 한 번에 채웁니다.
+     * @param newCountsBySeq key: 수신자 userSeq, value: 새 알림 수
+     * @param userIdsBySeq   key: 수신자 userSeq, value: userId
+     */
+    public void addNotifications(Map<Integer, Long> newCountsBySeq, Map<Integer, String> userIdsBySeq) {
+        List<Integer> missingSeqs = new ArrayList<>();
+        newCountsBySeq.forEach((seq, added) -> {
+            Counter counter = notificationCounts.getIfPresent(userIdsBySeq.get(seq));
+            if (counter != null) {
+                counter.value.addAndGet(added);
+            } else {
+                missingSeqs.add(seq);
+            }
+        });
+
+        if (!missingSeqs.isEmpty()) {
+            Map<String, Long> loaded = notificationRepository.countUnreadByReceiverSeqIn(missingSeqs).stream()
+                    .collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+            missingSeqs.stream().map(userIdsBySeq::get)
+                    .forEach(userId -> notificationCounts.put(userId, new Counter(loaded.getOrDefault(userId, 0L))));
+        }
+    }
+
+    public void notificationRead(String userId) {
+        decrement(notificationCounts.getIfPresent(userId));
+    }
+
+    public void allNotificationsRead(String userId) {
+        notificationCounts.put(userId, new Counter(0));
+    }
+
+    // ===== 채팅 =====
+
+    public long getUnreadChatCount(Long chatRoomId, Integer userSeq) {
+        return valueOf(chatCounts, new ChatKey(chatRoomId, userSeq),
+                () -> chatMessageRepository.countUnreadMessages(chatRoomId, userSeq));
+    }
+
+    /**
+     * 채팅방 목록 조회용: 캐시에 없는 방의 개수를 한 번의 쿼리로 채운 뒤 방별 개수를 돌려줍니다.
+     */
+    public Map<Long, Long> getUnreadChatCounts(Collection<Long> chatRoomIds, Integer userSeq) {
+        List<Long> missingRoomIds = chatRoomIds.stream()
+                .filter(roomId -> chatCounts.getIfPresent(new ChatKey(roomId, userSeq)) == null)
+                .collect(Collectors.toList());
+        if (!missingRoomIds.isEmpty()) {
+            Map<Long, Long> loaded = chatMessageRepository.countUnreadMessagesByRoomIn(missingRoomIds, userSeq).stream()
+                    .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+            missingRoomIds.forEach(roomId ->
+                    chatCounts.put(new ChatKey(roomId, userSeq), new Counter(loaded.getOrDefault(roomId, 0L))));
+        }
+        return chatRoomIds.stream().distinct()
+                .collect(Collectors.toMap(Function.identity(), roomId -> getUnreadChatCount(roomId, userSeq)));
+    }
+
+    /**
+     * 다른 쿼리에서 함께 계산된 안 읽은 메시지 수로 캐시를 채웁니다. (채팅 목록 조회)
+     */
+    public void primeChatCounts(Map<Long, Long> countsByRoomId, Integer userSeq) {
+        countsByRoomId.forEach((roomId, count) -> chatCounts.put(new ChatKey(roomId, userSeq), new Counter(count)));
+    }
+
+    /**
+     * 채팅 메시지가 커밋된 뒤 수신자 기준으로 증가시킵니다. (캐시에 없으면 다음 조회 때 DB에서 계산)
+     */
+    public void chatMessageAdded(Long chatRoomId, Integer receiverSeq) {
+        Counter counter = chatCounts.getIfPresent(new ChatKey(chatRoomId, receiverSeq));
+        if (counter != null) {
+            counter.value.incrementAndGet();
+        }
+    }
+
+    public void chatRoomRead(Long chatRoomId, Integer userSeq) {
+        chatCounts.put(new ChatKey(chatRoomId, userSeq), new Counter(0));
+    }
+
+    // ===== 내부 구현 =====
+
+    private static <K> Cache<K, Counter> newCounterCache(long maximumSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    private <K> long valueOf(Cache<K, Counter> counts, K key, LongSupplier loader) {
+        return counts.get(key, k -> new Counter(loader.getAsLong())).value.get();
+    }
+
+    private void decrement(Counter counter) {
+        if (counter != null) {
+            counter.value.updateAndGet(v -> Math.max(0, v - 1));
+        }
+    }
+
+    private static class Counter {
+        private final AtomicLong value;
+
+        Counter(long initial) {
+            this.value = new AtomicLong(initial);
+        }
+    }
+
+    private record ChatKey(Long chatRoomId, Integer userSeq) {
+    }
+}
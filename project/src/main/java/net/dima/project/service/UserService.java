@@ -27,6 +27,7 @@ public class UserService {
     private final UserRepository repository;
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
     private final ApplicationEventPublisher eventPublisher;
+    private final DashboardCounterService dashboardCounterService;
 
     // [수정] application.properties에 정의된 파일 업로드 경로를 주입받음
     @Value("${file.upload-dir}")
@@ -84,6 +85,7 @@ public class UserService {
         UserEntity userEntity = UserEntity.toEntity(userDTO);
         repository.save(userEntity);
         log.info("사용자 DB 저장 완료. 아이디: {}", userEntity.getUserId());
+        dashboardCounterService.userRegistered(userEntity.getRoles());
         eventPublisher.publishEvent(new NotificationEvents.UserJoinedEvent(this));
     }
 
@@ -102,6 +104,7 @@ public class UserService {
         UserEntity userEntity = UserEntity.toEntity(userDTO);
         repository.save(userEntity);
         log.info("카카오 사용자 DB 저장 완료");
+        dashboardCounterService.userRegistered(userEntity.getRoles());
     }
 
     // 아이디 중복 확인
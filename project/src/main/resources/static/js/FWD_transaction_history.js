@@ -86,6 +86,18 @@ document.addEventListener('DOMContentLoaded', () => {
         }
     }
 
+    // 현재 조회 조건 그대로 파일을 내려받습니다. (서버가 한 행씩 스트리밍으로 작성)
+    function exportTransactions(format) {
+        const activeFilter = filterGroup.querySelector('.is-active');
+        const params = new URLSearchParams();
+        params.append('type', activeFilter ? activeFilter.dataset.filter : 'all');
+        params.append('format', format);
+        if (startDateInput.value) params.append('startDate', startDateInput.value);
+        if (endDateInput.value) params.append('endDate', endDateInput.value);
+        if (keywordInput.value) params.append('keyword', keywordInput.value);
+        window.location.href = `/api/fwd/transactions/export?${params.toString()}`;
+    }
+
     function showSummaryModal() {
         const rows = tableBody.querySelectorAll('tr');
         if (rows.length === 0 || (rows.length === 1 && rows[0].querySelector('td[colspan="7"]'))) {
@@ -152,6 +164,9 @@ document.addEventListener('DOMContentLoaded', () => {
         }
         showSummaryModal();
     });
+    searchForm.querySelectorAll('.btn-export').forEach(btn => {
+        btn.addEventListener('click', () => exportTransactions(btn.dataset.format));
+    });
     summaryModal.querySelector('.btn-close').addEventListener('click', () => summaryModal.style.display = 'none');
     summaryModal.querySelector('.btn-cancel').addEventListener('click', () => summaryModal.style.display = 'none');
 	setDefaultDates();
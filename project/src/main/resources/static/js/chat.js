@@ -10,6 +10,11 @@ document.addEventListener('DOMContentLoaded', () => {
 
     let isChatWidgetVisible = false;
 
+    // 메시지 커서 페이지네이션 상태 (채팅방을 열면 최근 메시지만, 위로 스크롤하면 이전 메시지를 이어서 불러옴)
+    const MESSAGE_PAGE_SIZE = 30;
+    let olderMessagesCursor = null;
+    let isLoadingOlderMessages = false;
+
     const chatListContainer = document.getElementById('chat-list-container');
     const chatRoomView = document.getElementById('chat-room-view');
     const noChatSelectedView = document.getElementById('no-chat-selected');
@@ -146,9 +151,15 @@ document.addEventListener('DOMContentLoaded', () => {
         messageInput.disabled = false;
         sendMessageBtn.disabled = false;
         messageListContainer.innerHTML = '';
-        const response = await fetch(`/api/chat/rooms/${roomId}/messages`);
-        const messages = await response.json();
-        messages.forEach(showMessage);
+        olderMessagesCursor = null;
+        const response = await fetch(`/api/chat/rooms/${roomId}/messages?size=${MESSAGE_PAGE_SIZE}`);
+        const page = await response.json();
+        if (selectedChatRoomId !== roomId) return; // 불러오는 동안 다른 방을 선택한 경우
+        page.content.forEach(showMessage);
+        olderMessagesCursor = page.hasNext ? page.nextCursor : null;
+        if (messageListContainer.scrollHeight <= messageListContainer.clientHeight) {
+            loadOlderMessages(); // 첫 페이지가 화면을 다 채우지 못하면 스크롤할 수 없으므로 바로 이어서 불러옴
+        }
         
         const subscription = stompClient.subscribe('/topic/chatroom/' + roomId, (message) => {
             showMessage(JSON.parse(message.body));
@@ -160,7 +171,43 @@ document.addEventListener('DOMContentLoaded', () => {
         subscriptions.set(roomId, subscription);
     }
     
+    async function loadOlderMessages() {
+        if (!olderMessagesCursor || isLoadingOlderMessages || !selectedChatRoomId) return;
+        isLoadingOlderMessages = true;
+        const roomId = selectedChatRoomId;
+        try {
+            const response = await fetch(`/api/chat/rooms/${roomId}/messages?before=${olderMessagesCursor}&size=${MESSAGE_PAGE_SIZE}`);
+            if (!response.ok) throw new Error('이전 메시지를 불러오지 못했습니다.');
+            const page = await response.json();
+            if (selectedChatRoomId !== roomId) return;
+
+            // 앞에 메시지를 끼워 넣어도 보고 있던 위치가 그대로 유지되도록 높이 차이만큼 스크롤을 보정합니다.
+            const previousHeight = messageListContainer.scrollHeight;
+            const fragment = document.createDocumentFragment();
+            page.content.forEach(message => fragment.appendChild(createMessageElement(message)));
+            messageListContainer.insertBefore(fragment, messageListContainer.firstChild);
+            messageListContainer.scrollTop += messageListContainer.scrollHeight - previousHeight;
+
+            olderMessagesCursor = page.hasNext ? page.nextCursor : null;
+        } catch (error) {
+            console.error(error);
+        } finally {
+            isLoadingOlderMessages = false;
+        }
+    }
+
+    messageListContainer.addEventListener('scroll', () => {
+        if (messageListContainer.scrollTop < 50) {
+            loadOlderMessages();
+        }
+    });
+
     function showMessage(message) {
+        messageListContainer.appendChild(createMessageElement(message));
+        messageListContainer.scrollTop = messageListContainer.scrollHeight;
+    }
+
+    function createMessageElement(message) {
         const messageItem = document.createElement('div');
         messageItem.classList.add('message-item');
         const messageBubble = document.createElement('div');
@@ -176,8 +223,7 @@ document.addEventListener('DOMContentLoaded', () => {
             messageItem.appendChild(senderName);
         }
         messageItem.appendChild(messageBubble);
-        messageListContainer.appendChild(messageItem);
-        messageListContainer.scrollTop = messageListContainer.scrollHeight;
+        return messageItem;
     }
 
     function sendMessage() {
@@ -72,7 +72,6 @@ document.addEventListener('DOMContentLoaded', () => {
         } else {
             params.delete('arrivalPort');
         }
-        params.set('page', '0');
         window.location.search = params.toString();
     });
     
@@ -87,6 +87,12 @@ document.addEventListener('DOMContentLoaded', () => {
 
         // --- SSE 이벤트 중앙 처리 ---
 
+        // 0. 재연결 시 서버가 놓친 이벤트를 다시 보낼 수 없는 경우에만 화면을 새로 불러옵니다.
+        eventSource.addEventListener('resync', () => {
+            console.warn("SSE replay unavailable. Reloading page.");
+            window.location.reload();
+        });
+
         // 1. 읽지 않은 알림 개수 업데이트
         eventSource.addEventListener('unreadCount', (event) => {
             updateCountUI(event.data);
@@ -0,0 +1,147 @@
+package net.dima.project.config;
+
+import net.dima.project.service.LocalClusterMessageBus;
+import net.dima.project.service.StompMessageRelay;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketMessagingAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * relay 모드에서 서버 두 대가 같은 외부 STOMP 브로커(내장 Artemis)에 붙었을 때,
+ * 한 서버에서 보낸 채팅방 메시지가 브로커를 거쳐 다른 서버에 연결된 구독자에게 전달되는지 확인합니다.
+ * (DB 없이 STOMP 설정과 StompMessageRelay 만 올림)
+ */
+class StompBrokerRelayTest {
+
+    private static final String DESTINATION = "/topic/chatroom/1";
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startBrokerAndNodes() throws Exception {
+        int stompPort = freePort();
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .addAcceptorConfiguration("stomp", "tcp://localhost:" + stompPort + "?protocols=STOMP"));
+        broker.start();
+
+        nodeA = startNode(stompPort);
+        nodeB = startNode(stompPort);
+    }
+
+    @AfterAll
+    static void stopBrokerAndNodes() throws Exception {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void messageSentOnOneNodeReachesSubscriberOnAnotherNode() throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+
+        int portA = ((WebServerApplicationContext) nodeA).getWebServer().getPort();
+        StompSession session = stompClient.connectAsync("ws://localhost:" + portA + "/ws-chat",
+                new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+        BlockingQueue<Map<?, ?>> received = new LinkedBlockingQueue<>();
+        session.subscribe(DESTINATION, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<?, ?>) payload);
+            }
+        });
+
+        // 구독이 브로커에 등록되기 전에 보낸 메시지는 버려지므로, 받을 때까지 B 서버에서 다시 보냅니다.
+        StompMessageRelay relayB = nodeB.getBean(StompMessageRelay.class);
+        Map<?, ?> message = null;
+        for (int attempt = 0; attempt < 50 && message == null; attempt++) {
+            relayB.convertAndSend(DESTINATION, Map.of("messageContent", "hello from B"));
+            message = received.poll(200, TimeUnit.MILLISECONDS);
+        }
+
+        assertNotNull(message, "다른 서버의 구독자에게 메시지가 전달되지 않았습니다.");
+        assertEquals("hello from B", message.get("messageContent"));
+        session.disconnect();
+    }
+
+    private static ConfigurableApplicationContext startNode(int stompPort) {
+        // application.properties 보다 우선하도록 실행 인자로 넘깁니다.
+        return new SpringApplicationBuilder(RelayNode.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--chat.broker.mode=relay",
+                "--chat.broker.relay.host=localhost",
+                "--chat.broker.relay.port=" + stompPort);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            JacksonAutoConfiguration.class,
+            WebSocketServletAutoConfiguration.class,
+            WebSocketMessagingAutoConfiguration.class
+    })
+    @Import({WebSocketConfig.class, StompMessageRelay.class, LocalClusterMessageBus.class})
+    static class RelayNode {
+    }
+}
@@ -0,0 +1,132 @@
+package net.dima.project.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 채팅 메시지 ID 생성기와 저널의 처리량 측정 (DB 대신 배치마다 지연만 주는 저장소 사용)
+ * 한계: ID 생성기는 노드당 초당 약 25만 건, 저널은 배치 크기 / 배치 저장 시간.
+ * 기준값은 느린 CI 에서도 통과하도록 한계보다 넉넉히 낮게 잡았습니다.
+ */
+class ChatMessageJournalBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 62_500;          // 총 50만 건
+    private static final int MESSAGES_PER_THREAD = 25_000;     // 총 20만 건
+    private static final long SINK_LATENCY_MILLIS = 2;         // 배치 한 번 저장에 걸리는 DB 시간 가정
+    private static final long MIN_IDS_PER_SECOND = 100_000;
+    private static final long MIN_MESSAGES_PER_SECOND = 50_000;
+
+    @Test
+    void idGeneratorStaysUniqueAndOrderedUnderContention() throws Exception {
+        ChatMessageIdGenerator generator = new ChatMessageIdGenerator(3);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long started = System.nanoTime();
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            long[] all = new long[THREADS * IDS_PER_THREAD];
+            for (int t = 0; t < THREADS; t++) {
+                long[] ids = futures.get(t).get(60, TimeUnit.SECONDS);
+                // 한 스레드가 받은 ID 는 계속 증가해야 합니다.
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(ids[i] > ids[i - 1], "ID 가 증가하지 않음: " + ids[i - 1] + " -> " + ids[i]);
+                }
+                System.arraycopy(ids, 0, all, t * IDS_PER_THREAD, IDS_PER_THREAD);
+            }
+            long perSecond = perSecond(all.length, System.nanoTime() - started);
+
+            assertEquals(all.length, Arrays.stream(all).distinct().count(), "중복 ID 발생");
+            assertTrue(perSecond >= MIN_IDS_PER_SECOND, "ID 생성 처리량: " + perSecond + "/s");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void journalBatchesConcurrentAppendsWithoutLoss() throws Exception {
+        AtomicLong stored = new AtomicLong();
+        AtomicLong batches = new AtomicLong();
+        AtomicLong lastStoredId = new AtomicLong();
+        AtomicLong outOfOrder = new AtomicLong();
+        ChatMessageSink sink = batch -> {
+            try {
+                Thread.sleep(SINK_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (ChatMessageJournal.Entry entry : batch) {
+                if (entry.messageId() <= lastStoredId.getAndSet(entry.messageId())) {
+                    outOfOrder.incrementAndGet();
+                }
+            }
+            stored.addAndGet(batch.size());
+            batches.incrementAndGet();
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // 운영 설정과 같은 대기열/배치 크기
+        ChatMessageJournal journal = new ChatMessageJournal(sink, meterRegistry, 0, "local", 50_000, 500, 20, 1_000, 5);
+        journal.start();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicLong rejected = new AtomicLong();
+        try {
+            long started = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long roomId = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                        while (true) {
+                            try {
+                                journal.append(roomId, (int) roomId, "message " + i);
+                                break;
+                            } catch (IllegalStateException full) {
+                                // 대기열이 가득 차면 사용자처럼 잠시 뒤 다시 보냅니다.
+                                rejected.incrementAndGet();
+                                Thread.onSpinWait();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            assertTrue(journal.awaitFlushed(30_000), "저장 대기 시간 초과");
+            long perSecond = perSecond(THREADS * MESSAGES_PER_THREAD, System.nanoTime() - started);
+
+            assertEquals(THREADS * MESSAGES_PER_THREAD, stored.get());
+            assertEquals(0, outOfOrder.get(), "저장 순서가 ID 순서와 다름");
+            assertTrue(stored.get() / batches.get() >= 50, "평균 배치 크기: " + stored.get() / batches.get());
+            assertTrue(perSecond >= MIN_MESSAGES_PER_SECOND,
+                    "저널 처리량: " + perSecond + "/s (배치 " + batches.get() + "번, 대기열 가득 참 " + rejected.get() + "번)");
+        } finally {
+            executor.shutdownNow();
+            journal.stop();
+        }
+    }
+
+    private static long perSecond(long count, long elapsedNanos) {
+        return count * 1_000_000_000L / Math.max(1, elapsedNanos);
+    }
+}
@@ -0,0 +1,118 @@
+package net.dima.project.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 저장 실패 시 재시도 한도를 넘기면 한 건씩 나눠 저장하고 데이터 문제인 메시지만 제외하는지,
+ * 방별 저장 대기가 다른 방의 저장을 기다리지 않는지 확인합니다. (DB 대신 흉내 내는 저장소 사용)
+ */
+class ChatMessageJournalTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ChatMessageJournal.Entry> stored = Collections.synchronizedList(new ArrayList<>());
+    private ChatMessageJournal journal;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void badMessageIsParkedAndTheRestOfTheBatchIsStored() {
+        journal = start(batch -> {
+            if (batch.stream().anyMatch(entry -> entry.content().equals("bad"))) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            stored.addAll(batch);
+        });
+
+        journal.append(1L, 1, "first");
+        journal.append(1L, 1, "bad");
+        journal.append(2L, 2, "last");
+
+        assertTrue(journal.awaitFlushed(5_000));
+        assertEquals(List.of("first", "last"), stored.stream().map(ChatMessageJournal.Entry::content).toList());
+        assertEquals(1.0, meterRegistry.counter("chat.journal.parked").count());
+        assertEquals(2.0, meterRegistry.counter("chat.journal.flushed").count());
+    }
+
+    @Test
+    void outageKeepsRetryingWithoutDroppingMessages() {
+        AtomicInteger calls = new AtomicInteger();
+        journal = start(batch -> {
+            // 재시도 한도(2번)와 한 건씩 저장 시도를 모두 넘길 때까지 DB 장애가 이어집니다.
+            if (calls.incrementAndGet() <= 6) {
+                throw new RecoverableDataAccessException("Communications link failure");
+            }
+            stored.addAll(batch);
+        });
+
+        for (int i = 0; i < 3; i++) {
+            journal.append(1L, 1, "message" + i);
+        }
+
+        assertTrue(journal.awaitFlushed(5_000));
+        assertEquals(3, stored.size());
+        assertEquals(0.0, meterRegistry.counter("chat.journal.parked").count());
+        assertTrue(meterRegistry.counter("chat.journal.flush.failures").count() >= 6);
+    }
+
+    @Test
+    void roomWaitDoesNotWaitForOtherRooms() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        journal = start(batch -> {
+            if (batch.stream().anyMatch(entry -> entry.chatRoomId() == 2L)) {
+                await(release);
+            }
+            stored.addAll(batch);
+        });
+
+        journal.append(1L, 1, "room1");
+        assertTrue(journal.awaitFlushed(1L, 5_000));
+        journal.append(2L, 2, "room2");
+
+        assertTrue(journal.awaitFlushed(1L, 100));
+        assertFalse(journal.awaitFlushed(2L, 100));
+        release.countDown();
+        assertTrue(journal.awaitFlushed(2L, 5_000));
+        assertEquals(2, stored.size());
+    }
+
+    @Test
+    void clusteredNodeRequiresExplicitNodeId() {
+        assertEquals(0, ChatMessageJournal.resolveNodeId(-1, "local"));
+        assertEquals(3, ChatMessageJournal.resolveNodeId(3, "jdbc"));
+        assertThrows(IllegalStateException.class, () -> ChatMessageJournal.resolveNodeId(-1, "jdbc"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ChatMessageJournal start(ChatMessageSink sink) {
+        ChatMessageJournal started = new ChatMessageJournal(sink, meterRegistry, 0, "local", 1_000, 500, 20, 1, 2);
+        started.start();
+        return started;
+    }
+}
@@ -0,0 +1,212 @@
+package net.dima.project.service;
+
+import net.dima.project.dto.OfferRequestDto;
+import net.dima.project.entity.ContainerEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 수백 명이 같은 컨테이너에 동시에 입찰/낙찰해도 잔여 용량을 넘겨 확보되지 않는지 확인합니다.
+ * 장부 잠금과 조건부 UPDATE 는 MySQL 동작에 의존하므로 SQL.txt 로 만든 실제 MySQL 에서 실행합니다.
+ * (Docker 가 없으면 건너뛰지 않고 실패하도록 두어, 검증 없이 통과하는 일이 없게 합니다)
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ContainerCapacityService.class, OfferService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class ContainerCapacityServiceConcurrencyTest {
+
+    private static final String CONTAINER_ID = "CAPTEST0001";
+    private static final double CAPACITY_CBM = 40.0;
+    private static final int SUBMITTERS = 400;
+    private static final int THREADS = 64;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("dima5")
+            .withCopyFileToContainer(MountableFile.forHostPath("SQL.txt"), "/docker-entrypoint-initdb.d/schema.sql");
+
+    @Autowired
+    private ContainerCapacityService containerCapacityService;
+
+    @Autowired
+    private OfferService offerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private int forwarderSeq;
+    private final List<Long> requestIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("SET FOREIGN_KEY_CHECKS = 0");
+        jdbcTemplate.update("DELETE FROM offer");
+        jdbcTemplate.update("DELETE FROM request");
+        jdbcTemplate.update("DELETE FROM cargo");
+        jdbcTemplate.update("DELETE FROM container_capacity");
+        jdbcTemplate.update("DELETE FROM container");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'captest%'");
+        jdbcTemplate.update("SET FOREIGN_KEY_CHECKS = 1");
+
+        jdbcTemplate.update("INSERT INTO users (email, user_name, user_id, roles) VALUES ('captest-fwd@test.com', '포워더', 'captest-fwd', 'ROLE_FORWARDER')");
+        forwarderSeq = jdbcTemplate.queryForObject("SELECT user_seq FROM users WHERE user_id = 'captest-fwd'", Integer.class);
+        jdbcTemplate.update("INSERT INTO users (email, user_name, user_id, roles) VALUES ('captest-cus@test.com', '화주', 'captest-cus', 'ROLE_SHIPPER')");
+        int shipperSeq = jdbcTemplate.queryForObject("SELECT user_seq FROM users WHERE user_id = 'captest-cus'", Integer.class);
+
+        jdbcTemplate.update("INSERT INTO container (container_id, forwarder_id, departure_port, arrival_port, etd, eta, size, capacity_cbm, status) " +
+                "VALUES (?, ?, '부산', '상해', CURDATE() + INTERVAL 7 DAY, CURDATE() + INTERVAL 14 DAY, '20FT', ?, 'SCHEDULED')",
+                CONTAINER_ID, forwarderSeq, CAPACITY_CBM);
+        jdbcTemplate.update("INSERT INTO container_capacity (container_id, capacity_cbm, confirmed_cbm, resale_cbm, bidding_cbm, external_cbm, updated_at) " +
+                "VALUES (?, ?, 0, 0, 0, 0, NOW())", CONTAINER_ID, CAPACITY_CBM);
+
+        requestIds.clear();
+        for (int i = 0; i < SUBMITTERS; i++) {
+            jdbcTemplate.update("INSERT INTO cargo (owner_id, item_name, incoterms, total_cbm) VALUES (?, ?, 'FOB', ?)",
+                    shipperSeq, "화물" + i, cargoCbm(i));
+            long cargoId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            jdbcTemplate.update("INSERT INTO request (cargo_id, requester_id, departure_port, arrival_port, deadline, trade_type, transport_type, status) " +
+                    "VALUES (?, ?, '부산', '상해', ?, '수출', '해상', 'OPEN')", cargoId, shipperSeq, LocalDateTime.now().plusDays(1));
+            requestIds.add(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class));
+        }
+    }
+
+    @Test
+    void concurrentBidsNeverExceedContainerCapacity() throws Exception {
+        // 입찰 제출 화면과 같은 경로: OfferService.createOffer (용량 확보 → PENDING 제안 저장 → 장부 재집계)
+        Result result = race(i -> {
+            OfferRequestDto dto = new OfferRequestDto();
+            dto.setRequestId(requestIds.get(i));
+            dto.setContainerId(CONTAINER_ID);
+            dto.setPrice(BigDecimal.valueOf(100));
+            dto.setCurrency("USD");
+            offerService.createOffer(dto, "captest-fwd");
+        });
+
+        assertLedgerMatchesOffers(result, "PENDING", "bidding_cbm");
+    }
+
+    @Test
+    void concurrentAcceptsNeverExceedContainerCapacity() throws Exception {
+        ContainerEntity container = ContainerEntity.builder().containerId(CONTAINER_ID).build();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // 낙찰 확정과 같은 순서: 용량 확보 → 제안 상태 반영 → 장부 재집계
+        Result result = race(i -> tx.executeWithoutResult(status -> {
+            containerCapacityService.reserve(container, cargoCbm(i), 0.0);
+            jdbcTemplate.update("INSERT INTO offer (request_id, container_id, forwarder_id, price, currency, status) " +
+                    "VALUES (?, ?, ?, 100, 'USD', 'ACCEPTED')", requestIds.get(i), CONTAINER_ID, forwarderSeq);
+            containerCapacityService.refresh(container);
+        }));
+
+        assertLedgerMatchesOffers(result, "ACCEPTED", "confirmed_cbm");
+    }
+
+    /**
+     * 최종 장부 행을 실제 제안 합계와 비교합니다.
+     * - 용량 칸(bidding/confirmed)은 해당 상태 제안의 CBM 합계와 같고, 잔여 용량은 (용량 - 합계) 와 같아야 합니다.
+     * - 합계는 용량을 넘지 않아야 하고(초과 확보 없음), 거절된 화물은 모두 마지막 잔여 용량보다 커야 합니다.
+     *   (잔여 용량은 줄어들기만 하므로, 거절 당시에도 들어갈 자리가 없었음)
+     */
+    private void assertLedgerMatchesOffers(Result result, String offerStatus, String ledgerColumn) {
+        assertEquals(SUBMITTERS, result.accepted.get() + result.rejected.size());
+        assertEquals(result.accepted.get(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM offer WHERE container_id = ? AND status = ?", Integer.class, CONTAINER_ID, offerStatus));
+
+        double offeredCbm = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(cg.total_cbm), 0) FROM offer o JOIN request r ON r.request_id = o.request_id " +
+                "JOIN cargo cg ON cg.cargo_id = r.cargo_id WHERE o.container_id = ? AND o.status = ?",
+                Double.class, CONTAINER_ID, offerStatus);
+        double ledgerCbm = jdbcTemplate.queryForObject(
+                "SELECT " + ledgerColumn + " FROM container_capacity WHERE container_id = ?", Double.class, CONTAINER_ID);
+        double availableCbm = jdbcTemplate.queryForObject(
+                "SELECT available_cbm FROM container_capacity WHERE container_id = ?", Double.class, CONTAINER_ID);
+
+        assertTrue(offeredCbm <= CAPACITY_CBM + 0.0001, "용량 초과 확보: " + offeredCbm + " > " + CAPACITY_CBM);
+        assertEquals(offeredCbm, ledgerCbm, 0.0001);
+        assertEquals(CAPACITY_CBM - offeredCbm, availableCbm, 0.0001);
+        for (int i : result.rejected) {
+            assertTrue(cargoCbm(i) > availableCbm, "들어갈 수 있던 화물이 거절됨: " + cargoCbm(i) + " <= " + availableCbm);
+        }
+    }
+
+    private Result race(Submission submission) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Result result = new Result();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < SUBMITTERS; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        submission.submit(index);
+                        result.accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        result.rejected.add(index);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    // 0.25 ~ 1.0 CBM 을 섞어 총 수요(약 250 CBM)가 용량의 몇 배가 되게 합니다.
+    private static double cargoCbm(int index) {
+        return 0.25 * (1 + index % 4);
+    }
+
+    @FunctionalInterface
+    private interface Submission {
+        void submit(int index);
+    }
+
+    private static class Result {
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Integer> rejected = new ConcurrentLinkedQueue<>();
+    }
+}
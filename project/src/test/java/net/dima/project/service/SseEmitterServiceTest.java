@@ -0,0 +1,111 @@
+package net.dima.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 소켓 쓰기에 묶인 연결을 휠이 멈춘 연결로 정리할 때, 휠 스레드는 emitter 를 기다리지 않고
+ * 묶여 있던 writer 가 쓰기를 마치는 즉시 남은 대기열을 버리고 emitter 를 오류로 끝내는지 확인합니다.
+ */
+class SseEmitterServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch socketReleased = new CountDownLatch(1);
+    private final BlockingEmitter emitter = new BlockingEmitter(socketReleased);
+    private final SseEmitterService service = new SseEmitterService(new ObjectMapper(), new LocalClusterMessageBus(),
+            meterRegistry, new SimpleAsyncTaskExecutor("sse-writer-"), 100, 5, 50, 10, 1, 1, 1) {
+        @Override
+        SseEmitter newEmitter() {
+            return emitter;
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        socketReleased.countDown();
+        service.stopHeartbeat();
+    }
+
+    @Test
+    void stalledConnectionIsCompletedWithErrorByTheBlockedWriter() throws InterruptedException {
+        service.start();
+        service.createEmitter("user1", List.of(), null); // "connected" 전송에서 소켓이 막힙니다.
+        assertTrue(emitter.firstSendStarted.await(5, TimeUnit.SECONDS), "첫 전송이 시작되지 않음");
+
+        // keepalive 가 대기열에 쌓인 채 stall timeout(1초)이 지나면 휠이 연결을 정리합니다.
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.counter("sse.connections.stalled").count() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1.0, meterRegistry.counter("sse.connections.stalled").count(), "멈춘 연결로 정리되지 않음");
+        // 정리 뒤에 들어온 이벤트는 닫힌 연결로 보내지 않습니다.
+        service.sendToClient("user1", "notification", "after-stall");
+        Thread.sleep(200);
+        assertNull(emitter.completedBy.get(), "writer 가 쓰는 중에 다른 스레드가 emitter 를 끝냄");
+
+        socketReleased.countDown();
+
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS), "emitter 가 끝나지 않음");
+        assertTrue(emitter.completedBy.get().startsWith("sse-writer-"), "emitter 를 끝낸 스레드: " + emitter.completedBy.get());
+        assertInstanceOf(IOException.class, emitter.error.get());
+        assertEquals(1, emitter.sends.get(), "정리 뒤에도 대기열의 이벤트를 계속 씀");
+    }
+
+    /**
+     * 첫 전송에서 socketReleased 가 열릴 때까지 막히는 emitter (느린 클라이언트의 소켓 쓰기 흉내)
+     */
+    private static class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch socketReleased;
+        private final CountDownLatch firstSendStarted = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final AtomicInteger sends = new AtomicInteger();
+        private final AtomicReference<String> completedBy = new AtomicReference<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        private BlockingEmitter(CountDownLatch socketReleased) {
+            this.socketReleased = socketReleased;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (sends.incrementAndGet() == 1) {
+                firstSendStarted.countDown();
+                try {
+                    socketReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completedBy.set(Thread.currentThread().getName());
+            completed.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error.set(ex);
+            complete();
+        }
+    }
+}
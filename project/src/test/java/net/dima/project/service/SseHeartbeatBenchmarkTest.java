@@ -0,0 +1,108 @@
+package net.dima.project.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 연결 2만 개에서 이전 방식(@Scheduled 스레드가 15초마다 모든 사용자에게 sendToClient("heartbeat"))과
+ * 휠 방식의 keepalive CPU 시간과 스레드 수 비교
+ * 전송 작업도 호출한 스레드에서 바로 실행해(동기 executor) 한 바퀴에 드는 CPU 를 모두 그 스레드에서 잽니다.
+ * 이전 방식은 한 번에 2만 건을 직렬화/보관/로깅하고, 휠은 한 틱에 슬롯 하나(1/15)만 주석 한 줄로 처리합니다.
+ * 기준값은 느린 CI 에서도 통과하도록 측정값(휠 한 바퀴 ≈ 이전 방식의 40%, 가장 느린 틱 ≈ 1/30)보다 넉넉히 잡았습니다.
+ */
+class SseHeartbeatBenchmarkTest {
+
+    private static final int CONNECTIONS = 20_000;
+    private static final int SLOTS = 15;
+    private static final int ROUNDS = 5;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final AtomicLong writes = new AtomicLong();
+    private final SseEmitterService service = new SseEmitterService(new ObjectMapper(), new LocalClusterMessageBus(),
+            new SimpleMeterRegistry(), Runnable::run, 100, 5, 50, 10, 3_600, SLOTS, 45) { // 휠은 직접 tick 합니다.
+        @Override
+        SseEmitter newEmitter() {
+            return new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    builder.build(); // 실제 소켓 대신 보낼 내용을 만들기만 합니다.
+                    writes.incrementAndGet();
+                }
+            };
+        }
+    };
+    private final List<String> userIds = new ArrayList<>(CONNECTIONS);
+
+    @AfterEach
+    void tearDown() {
+        service.stopHeartbeat();
+    }
+
+    @Test
+    void wheelUsesLessCpuPerRotationAndSpreadsItAcrossTicks() {
+        connectAll();
+        service.start();
+        SseHeartbeatWheel wheel = service.getHeartbeatWheel();
+
+        long sweepNanos = Long.MAX_VALUE;
+        long rotationNanos = Long.MAX_VALUE;
+        long slowestTickNanos = Long.MAX_VALUE;
+        // 첫 바퀴는 JIT 예열이므로, 여러 번 재서 가장 빠른 값끼리 비교합니다.
+        for (int round = 0; round < ROUNDS; round++) {
+            writes.set(0);
+            long started = threads.getCurrentThreadCpuTime();
+            // 이전 heartbeat 처럼 덮어쓰기 대상(보관하지 않는) 이벤트로 보냅니다.
+            userIds.forEach(userId -> service.sendToClient(userId, "unreadCount", "ping"));
+            sweepNanos = Math.min(sweepNanos, threads.getCurrentThreadCpuTime() - started);
+            assertEquals(CONNECTIONS, writes.get());
+
+            writes.set(0);
+            long rotationStarted = threads.getCurrentThreadCpuTime();
+            long roundSlowestTick = 0;
+            for (int tick = 0; tick < SLOTS; tick++) {
+                long tickStarted = threads.getCurrentThreadCpuTime();
+                wheel.tick();
+                roundSlowestTick = Math.max(roundSlowestTick, threads.getCurrentThreadCpuTime() - tickStarted);
+            }
+            rotationNanos = Math.min(rotationNanos, threads.getCurrentThreadCpuTime() - rotationStarted);
+            slowestTickNanos = Math.min(slowestTickNanos, roundSlowestTick);
+            assertEquals(CONNECTIONS, writes.get());
+        }
+
+        String measured = "이전 방식 1회 " + sweepNanos / 1_000 + "µs, 휠 한 바퀴 " + rotationNanos / 1_000
+                + "µs, 가장 느린 틱 " + slowestTickNanos / 1_000 + "µs";
+        assertTrue(rotationNanos < sweepNanos, measured);
+        assertTrue(slowestTickNanos * 5 < sweepNanos, measured);
+    }
+
+    @Test
+    void wheelAddsOneThreadRegardlessOfConnectionCount() {
+        int before = threads.getThreadCount();
+        connectAll();
+        service.start();
+        int after = threads.getThreadCount();
+
+        // 연결마다 스케줄 작업을 두지 않고, 연결 수와 무관하게 휠 전용 스레드 하나만 늘어납니다.
+        assertTrue(after - before <= 1, "늘어난 스레드: " + (after - before));
+    }
+
+    private void connectAll() {
+        for (int i = 0; i < CONNECTIONS; i++) {
+            String userId = "user" + i;
+            userIds.add(userId);
+            service.createEmitter(userId, List.of(), null);
+        }
+    }
+}
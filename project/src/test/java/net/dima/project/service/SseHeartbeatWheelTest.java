@@ -0,0 +1,125 @@
+package net.dima.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 연결 2만 개를 휠에 올려 한 바퀴 동안 연결마다 keepalive 가 한 번씩, 슬롯별로 고르게 나가는지와
+ * 멈춘 연결 정리가 다른 연결의 keepalive 를 막지 않는지 확인합니다. (스케줄러 없이 tick 을 직접 호출)
+ */
+class SseHeartbeatWheelTest {
+
+    private static final int CONNECTIONS = 20_000;
+    private static final int SLOTS = 15;
+    private static final long INTERVAL_MILLIS = 15_000;
+
+    private final List<SseConnection> connections = new ArrayList<>(CONNECTIONS);
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < CONNECTIONS; i++) {
+            connections.add(new SseConnection("user" + (i % 5_000), new SseEmitter(), Set.of(), 100));
+        }
+    }
+
+    @Test
+    void oneRotationSendsOneKeepAlivePerConnectionSpreadAcrossSlots() {
+        AtomicInteger keepAlivesThisTick = new AtomicInteger();
+        Set<Long> pinged = new HashSet<>();
+        SseHeartbeatWheel wheel = new SseHeartbeatWheel(INTERVAL_MILLIS, SLOTS, 45_000,
+                connection -> {
+                    connection.offerKeepAlive();
+                    pinged.add(connection.getId());
+                    keepAlivesThisTick.incrementAndGet();
+                },
+                connection -> { throw new AssertionError("멈춘 연결이 없어야 합니다: " + connection.getId()); });
+        connections.forEach(wheel::add);
+
+        int minPerTick = Integer.MAX_VALUE;
+        int maxPerTick = 0;
+        long slowestTickNanos = 0;
+        for (int tick = 0; tick < SLOTS; tick++) {
+            keepAlivesThisTick.set(0);
+            long started = System.nanoTime();
+            wheel.tick();
+            slowestTickNanos = Math.max(slowestTickNanos, System.nanoTime() - started);
+            minPerTick = Math.min(minPerTick, keepAlivesThisTick.get());
+            maxPerTick = Math.max(maxPerTick, keepAlivesThisTick.get());
+        }
+
+        assertEquals(CONNECTIONS, pinged.size());
+        assertTrue(maxPerTick - minPerTick <= 1, "슬롯별 연결 수 차이: " + minPerTick + " ~ " + maxPerTick);
+        // 틱 하나는 다음 틱(interval / slots) 전에 끝나야 합니다.
+        assertTrue(slowestTickNanos < INTERVAL_MILLIS / SLOTS * 1_000_000L, "가장 느린 틱: " + slowestTickNanos / 1_000_000 + "ms");
+        connections.forEach(connection -> assertEquals(1, connection.depth()));
+
+        // 전송되지 않은 keepalive 는 다음 바퀴에 덮어쓰므로 대기열이 늘어나지 않습니다.
+        for (int tick = 0; tick < SLOTS; tick++) {
+            wheel.tick();
+        }
+        connections.forEach(connection -> assertEquals(1, connection.depth()));
+    }
+
+    @Test
+    void stalledConnectionsAreClosedWithoutSkippingHealthyOnes() throws InterruptedException {
+        Set<Long> stalled = new HashSet<>();
+        AtomicInteger keepAlives = new AtomicInteger();
+        SseHeartbeatWheel wheel = new SseHeartbeatWheel(INTERVAL_MILLIS, SLOTS, 0,
+                connection -> {
+                    connection.offerKeepAlive();
+                    keepAlives.incrementAndGet();
+                },
+                connection -> stalled.add(connection.getId()));
+        connections.forEach(wheel::add);
+
+        // 짝수 번째 연결은 대기열이 비워지지 않은 채 멈춰 있고, 나머지는 방금 전송을 마쳤습니다.
+        for (int i = 0; i < CONNECTIONS; i += 2) {
+            connections.get(i).offer(null, "notification", "{}", false);
+        }
+        Thread.sleep(5);
+        for (int i = 1; i < CONNECTIONS; i += 2) {
+            connections.get(i).markWritten();
+        }
+
+        for (int tick = 0; tick < SLOTS; tick++) {
+            wheel.tick();
+        }
+
+        assertEquals(CONNECTIONS / 2, stalled.size());
+        assertEquals(CONNECTIONS / 2, keepAlives.get());
+        for (int i = 0; i < CONNECTIONS; i += 2) {
+            assertTrue(stalled.contains(connections.get(i).getId()));
+        }
+    }
+
+    @Test
+    void failingConnectionDoesNotStopTheRestOfTheSlot() {
+        AtomicInteger keepAlives = new AtomicInteger();
+        long failingId = connections.get(0).getId();
+        SseHeartbeatWheel wheel = new SseHeartbeatWheel(INTERVAL_MILLIS, SLOTS, 45_000,
+                connection -> {
+                    if (connection.getId() == failingId) {
+                        throw new IllegalStateException("소켓 오류");
+                    }
+                    keepAlives.incrementAndGet();
+                },
+                connection -> { });
+        connections.forEach(wheel::add);
+
+        for (int tick = 0; tick < SLOTS; tick++) {
+            wheel.tick();
+        }
+
+        assertEquals(CONNECTIONS - 1, keepAlives.get());
+    }
+}
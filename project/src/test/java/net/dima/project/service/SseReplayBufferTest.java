@@ -0,0 +1,58 @@
+package net.dima.project.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 재연결 시 Last-Event-ID 로 놓친 이벤트를 찾는 규칙 확인
+ * (보관 범위 밖의 id 는 재전송 불가(null → resync), 보관 중인 id 는 도착 순서 기준으로 그 뒤를 재전송)
+ */
+class SseReplayBufferTest {
+
+    @Test
+    void idOlderThanANewBufferCannotBeReplayed() {
+        // 보관함이 정리된 뒤 다시 만들어진 경우: 그 전의 이벤트는 모르므로 재전송할 수 없다고 답해야 합니다.
+        SseReplayBuffer buffer = new SseReplayBuffer(10, 5_000);
+        buffer.add(entry(5_001));
+
+        assertNull(buffer.since(4_000));
+        assertEquals(List.of(5_001L), ids(buffer.since(5_000)));
+    }
+
+    @Test
+    void evictedIdCannotBeReplayed() {
+        SseReplayBuffer buffer = new SseReplayBuffer(2, 0);
+        buffer.add(entry(1));
+        buffer.add(entry(2));
+        buffer.add(entry(3));
+
+        assertNull(buffer.since(0));
+        assertEquals(List.of(3L), ids(buffer.since(2)));
+    }
+
+    @Test
+    void knownIdReplaysEverythingThatArrivedAfterIt() {
+        // 다른 노드가 발급한 id 는 도착 순서와 어긋날 수 있습니다. (20 이 늦게 도착)
+        SseReplayBuffer buffer = new SseReplayBuffer(10, 0);
+        buffer.add(entry(10));
+        buffer.add(entry(30));
+        buffer.add(entry(20));
+        buffer.add(entry(40));
+
+        assertEquals(List.of(20L, 40L), ids(buffer.since(30)));
+        // 보관하지 않는 id(합쳐서 보낸 이벤트 등)는 id 순으로 비교합니다.
+        assertEquals(List.of(30L, 20L, 40L), ids(buffer.since(15)));
+    }
+
+    private static SseReplayBuffer.Entry entry(long id) {
+        return new SseReplayBuffer.Entry(id, "notification", "{}", System.currentTimeMillis());
+    }
+
+    private static List<Long> ids(List<SseReplayBuffer.Entry> entries) {
+        return entries.stream().map(SseReplayBuffer.Entry::id).toList();
+    }
+}
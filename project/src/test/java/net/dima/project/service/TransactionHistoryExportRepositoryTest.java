@@ -0,0 +1,130 @@
+package net.dima.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 실제 MySQL 의 장부 100만 행을 SettlementLedgerRepository.streamForExport(fetch size = Integer.MIN_VALUE 커서)로
+ * 읽어 작은 힙(-Xmx256m, gradle exportTest)에서 CSV 로 끝까지 내보내는지 확인합니다.
+ * 드라이버가 결과를 한 번에 받아 오면(스트리밍이 아니면) 100만 행이 힙에 올라와 실패합니다.
+ * (Docker 가 없으면 건너뛰지 않고 실패하도록 두어, 검증 없이 통과하는 일이 없게 합니다)
+ */
+@Tag("export")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TransactionHistoryService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+class TransactionHistoryExportRepositoryTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long MAX_TEST_HEAP_BYTES = 256L * 1024 * 1024;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("dima5")
+            .withCopyFileToContainer(MountableFile.forHostPath("SQL.txt"), "/docker-entrypoint-initdb.d/schema.sql");
+
+    @Autowired
+    private TransactionHistoryService transactionHistoryService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(Runtime.getRuntime().maxMemory() <= MAX_TEST_HEAP_BYTES, "테스트 힙이 제한되어 있지 않습니다. (gradle exportTest 로 실행)");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM settlement_ledger");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'exporttest%'");
+        jdbcTemplate.update("INSERT INTO users (email, user_name, user_id, roles) VALUES ('exporttest-fwd@test.com', '포워더', 'exporttest-fwd', 'ROLE_FORWARDER')");
+        int forwarderSeq = jdbcTemplate.queryForObject("SELECT user_seq FROM users WHERE user_id = 'exporttest-fwd'", Integer.class);
+
+        // 행을 애플리케이션으로 가져오지 않도록 DB 안에서 100만 행을 만듭니다. (판매/구매 번갈아)
+        jdbcTemplate.execute("SET SESSION cte_max_recursion_depth = " + ROWS);
+        jdbcTemplate.update("INSERT INTO settlement_ledger (user_seq, entry_type, transaction_date, item_name, partner_name, " +
+                "departure_port, arrival_port, price, currency, offer_id, container_id, settled_at) " +
+                "WITH RECURSIVE seq (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < ?) " +
+                "SELECT ?, IF(n % 2 = 0, 'SALE', 'PURCHASE'), '2025-01-01 09:00:00' + INTERVAL n MINUTE, CONCAT('품목 ', n), " +
+                "CONCAT('포워더 ', n % 1000), '부산', '상해', 10 + n % 5000 / 100, 'USD', n, CONCAT('EXPTEST', n % 100), NOW() " +
+                "FROM seq", ROWS - 1, forwarderSeq);
+    }
+
+    @Test
+    void streamsMillionLedgerRowsFromMySqlInSmallHeap() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+
+        transactionHistoryService.exportTransactionHistory("exporttest-fwd", "all", null, null, null,
+                TransactionHistoryService.ExportFormat.CSV, out);
+
+        assertEquals(ROWS + 1, out.lines); // 헤더 + 데이터
+        // 거래일 최신순: 첫 데이터 행이 마지막으로 만든 행입니다.
+        assertTrue(out.head().contains("품목 " + (ROWS - 1)), "첫 데이터 행: " + out.head());
+    }
+
+    @Test
+    void exportFilterNarrowsTheStreamedRows() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+
+        transactionHistoryService.exportTransactionHistory("exporttest-fwd", "sale", null, null, "포워더 7",
+                TransactionHistoryService.ExportFormat.CSV, out);
+
+        // 판매(짝수 n) 중 상대방 이름에 '포워더 7' 이 들어가는 행을 만든 규칙 그대로 셉니다.
+        long expected = 0;
+        for (int n = 0; n < ROWS; n += 2) {
+            if (("포워더 " + (n % 1000)).contains("포워더 7")) {
+                expected++;
+            }
+        }
+        assertEquals(expected + 1, out.lines);
+    }
+
+    // 줄 수만 세고, 첫 줄 확인을 위해 앞부분만 보관합니다.
+    private static class CountingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (head.size() < 512) {
+                head.write(b);
+            }
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private String head() {
+            return head.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package net.dima.project.service;
+
+import net.dima.project.entity.SettlementEntryType;
+import net.dima.project.entity.UserEntity;
+import net.dima.project.repository.SettlementLedgerRepository;
+import net.dima.project.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 거래내역 내보내기가 장부 스트림(streamForExport)의 100만 행을 작은 힙에서 끝까지 쓰고 스트림을 닫는지 확인합니다.
+ * 저장소는 한 행씩 만들어 내는 Stream 으로 대신하며, 행을 모두 메모리에 모으면 힙이 부족해 실패합니다.
+ * 작은 힙(-Xmx256m)은 build.gradle 의 exportTest 작업에서만 적용됩니다. (gradle exportTest)
+ */
+@Tag("export")
+class TransactionHistoryExportTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long MAX_TEST_HEAP_BYTES = 256L * 1024 * 1024;
+    private static final int USER_SEQ = 7;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SettlementLedgerRepository settlementLedgerRepository = mock(SettlementLedgerRepository.class);
+    private final TransactionHistoryService service = new TransactionHistoryService(userRepository, settlementLedgerRepository);
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(Runtime.getRuntime().maxMemory() <= MAX_TEST_HEAP_BYTES, "테스트 힙이 제한되어 있지 않습니다. (gradle exportTest 로 실행)");
+        when(userRepository.findByUserId("fwd1")).thenReturn(UserEntity.builder().userSeq(USER_SEQ).build());
+        when(settlementLedgerRepository.streamForExport(eq(USER_SEQ), any(), any(), any(), any()))
+                .thenAnswer(invocation -> syntheticRows().onClose(() -> streamClosed.set(true)));
+    }
+
+    @Test
+    void exportsMillionCsvRowsFromLedgerStreamInSmallHeap() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+
+        service.exportTransactionHistory("fwd1", "sale", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), "Box",
+                TransactionHistoryService.ExportFormat.CSV, out);
+
+        assertEquals(ROWS + 1, out.lines); // 헤더 + 데이터
+        assertTrue(out.bytes > ROWS * 40L);
+        assertTrue(streamClosed.get(), "장부 스트림(DB 커서)이 닫히지 않았습니다.");
+        // 화면 필터와 기간/검색어가 그대로 조회 조건이 됩니다. (종료일은 다음 날 0시 미만)
+        verify(settlementLedgerRepository).streamForExport(USER_SEQ, Set.of(SettlementEntryType.SALE),
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0), "%box%");
+    }
+
+    @Test
+    void exportsMillionXlsxRowsFromLedgerStreamInSmallHeap() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+
+        service.exportTransactionHistory("fwd1", null, null, null, null, TransactionHistoryService.ExportFormat.XLSX, out);
+
+        assertTrue(out.bytes > 0);
+        assertTrue(streamClosed.get(), "장부 스트림(DB 커서)이 닫히지 않았습니다.");
+        verify(settlementLedgerRepository).streamForExport(eq(USER_SEQ),
+                eq(Set.of(SettlementEntryType.SALE, SettlementEntryType.PURCHASE)), any(), any(), eq(null));
+    }
+
+    // SettlementLedgerRepository.streamForExport 와 같은 모양의 행: [거래일, 유형, 품명, 출발항, 도착항, 상대방, 금액, 통화]
+    private Stream<Object[]> syntheticRows() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        return IntStream.range(0, ROWS).mapToObj(i -> new Object[]{
+                base.plusMinutes(i),
+                i % 2 == 0 ? SettlementEntryType.SALE : SettlementEntryType.PURCHASE,
+                "품목 " + i,
+                "부산",
+                "상해",
+                "포워더 " + (i % 1000),
+                BigDecimal.valueOf(1000 + i % 5000, 2),
+                "USD"
+        });
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}